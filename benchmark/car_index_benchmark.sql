@@ -0,0 +1,116 @@
+-- ═══════════════════════════════════════════════════════════════════════════
+-- CAR INDEX BENCHMARK - query times at 1M rows, before and after V2 / V6 indexes
+-- ═══════════════════════════════════════════════════════════════════════════
+--
+-- Runs in a throwaway schema, never touches the application's cars table.
+--
+-- Usage (docker-compose database):
+--   psql -h localhost -p 5433 -U myuser -d mydatabase -f benchmark/car_index_benchmark.sql
+--
+-- Compare the "Execution Time" lines of the BEFORE and AFTER sections.
+-- Expect Seq Scans on 1M rows before, Index (Only) Scans reading one page after.
+--
+-- The available-inventory queries also run as prepared statements with a FORCED
+-- GENERIC PLAN - the way JPA binds is_available. The V2 partial indexes cannot
+-- serve those; the V6 composite indexes can.
+-- ═══════════════════════════════════════════════════════════════════════════
+
+\timing on
+DROP SCHEMA IF EXISTS car_bench CASCADE;
+CREATE SCHEMA car_bench;
+SET search_path TO car_bench;
+
+\i src/main/resources/db/migration/V1__create_cars.sql
+
+-- 1M rows: 20 brands x 10 models, ~10% available, prices 5k-105k, years 2000-2024
+INSERT INTO cars (name, vin, brand, model, year, color, transmission, fuel_type, body_type,
+                  mileage, price, description, condition, location, is_available,
+                  created_at, updated_at)
+SELECT 'Car ' || g,
+       lpad(to_hex(g), 17, '0'),
+       'Brand' || (g % 20),
+       'Model' || (g % 10),
+       2000 + (g % 25),
+       'Black',
+       'AUTOMATIC',
+       'GASOLINE',
+       'SEDAN',
+       (g * 7) % 300000,
+       5000 + (g * 13) % 100000,
+       'Benchmark row',
+       'USED_GOOD',
+       'Munich, Germany',
+       (g % 10 = 0),
+       now(),
+       now()
+FROM generate_series(1, 1000000) AS g;
+
+ANALYZE cars;
+
+SET plan_cache_mode = force_generic_plan;
+PREPARE available_page(boolean, bigint) AS
+    SELECT * FROM cars WHERE is_available = $1 AND id > $2 ORDER BY id LIMIT 51;
+PREPARE available_price(boolean, double precision, double precision) AS
+    SELECT * FROM cars WHERE is_available = $1 AND price BETWEEN $2 AND $3 ORDER BY price LIMIT 51;
+
+\echo '════════════════════════ BEFORE (no secondary indexes) ════════════════════════'
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM cars WHERE brand = 'Brand7' AND id > 500000 ORDER BY id LIMIT 51;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM cars WHERE brand = 'Brand7' AND model = 'Model7' AND id > 0 ORDER BY id LIMIT 51;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM cars WHERE is_available AND id > 500000 ORDER BY id LIMIT 51;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM cars WHERE price BETWEEN 20000 AND 20500 AND id > 0 ORDER BY id LIMIT 51;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM cars WHERE is_available AND price BETWEEN 20000 AND 25000 ORDER BY price LIMIT 51;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM cars WHERE year >= 2024 AND id > 0 ORDER BY id LIMIT 51;
+
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE available_page(true, 500000);
+
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE available_price(true, 20000, 25000);
+
+\i src/main/resources/db/migration/V2__car_query_indexes.sql
+ANALYZE cars;
+
+\echo '════════════════════════ AFTER (V2 indexes) ════════════════════════'
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM cars WHERE brand = 'Brand7' AND id > 500000 ORDER BY id LIMIT 51;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM cars WHERE brand = 'Brand7' AND model = 'Model7' AND id > 0 ORDER BY id LIMIT 51;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM cars WHERE is_available AND id > 500000 ORDER BY id LIMIT 51;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM cars WHERE price BETWEEN 20000 AND 20500 AND id > 0 ORDER BY id LIMIT 51;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM cars WHERE is_available AND price BETWEEN 20000 AND 25000 ORDER BY price LIMIT 51;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM cars WHERE year >= 2024 AND id > 0 ORDER BY id LIMIT 51;
+
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE available_page(true, 500000);
+
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE available_price(true, 20000, 25000);
+
+\i src/main/resources/db/migration/V6__car_available_indexes.sql
+ANALYZE cars;
+
+\echo '════════════════════════ AFTER (V6 composite indexes, generic plans) ════════════════════════'
+
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE available_page(true, 500000);
+
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE available_price(true, 20000, 25000);
+
+DROP SCHEMA car_bench CASCADE;
@@ -0,0 +1,111 @@
+#!/usr/bin/env bash
+# ═══════════════════════════════════════════════════════════════════════════
+# CAR UPDATE CONTENTION BENCHMARK - many clients repricing a few hot cars
+# ═══════════════════════════════════════════════════════════════════════════
+#
+# Every worker loops: GET /api/cars/{id} (price + ETag) → PUT price + 1 with
+# If-Match → on 412 re-read and try again. This is the pricing-bot vs. sales
+# staff race: a read-modify-write from the client side.
+#
+# Correctness check: with compare-and-set every accepted PUT raised the price by
+# exactly 1, so   final price sum = initial sum + accepted updates.
+# Without optimistic locking (lost updates) the final sum comes out lower.
+#
+# Usage (application running on localhost:8080):
+#   benchmark/car_update_contention.sh [BASE_URL] [HOT_CARS] [THREADS] [UPDATES_PER_THREAD]
+#   benchmark/car_update_contention.sh http://localhost:8080 4 32 50
+#
+# Reports accepted updates, 412 retries, updates/s and the consistency check.
+# ═══════════════════════════════════════════════════════════════════════════
+
+set -euo pipefail
+
+BASE_URL=${1:-http://localhost:8080}
+HOT_CARS=${2:-4}
+THREADS=${3:-32}
+UPDATES=${4:-50}
+INITIAL_PRICE=10000
+
+WORK_DIR=$(mktemp -d)
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+# ── 1. Create the hot cars ─────────────────────────────────────────────────
+RUN=$(date +%s)
+BODY="["
+for ((i = 0; i < HOT_CARS; i++)); do
+  [[ $i -gt 0 ]] && BODY+=","
+  BODY+=$(printf '{"name":"Hot %d","vin":"HOT%08d%06d","brand":"Bench","model":"Hot","year":2024,"price":%d,"condition":"NEW","isAvailable":true}' \
+    "$i" "$((RUN % 100000000))" "$i" "$INITIAL_PRICE")
+done
+BODY+="]"
+
+IDS=($(curl -sf -X POST "$BASE_URL/api/cars/batch" -H 'Content-Type: application/json' -d "$BODY" \
+  | grep -o '"id":[0-9]*' | cut -d: -f2))
+echo "Hot cars: ${IDS[*]}"
+
+# ── 2. Workers ─────────────────────────────────────────────────────────────
+worker() {
+  local accepted=0 conflicts=0
+  for ((n = 0; n < UPDATES; n++)); do
+    local id=${IDS[$((RANDOM % HOT_CARS))]}
+    while true; do
+      local headers body etag price status
+      headers="$WORK_DIR/h.$1"
+      body=$(curl -sf -D "$headers" "$BASE_URL/api/cars/$id")
+      etag=$(grep -i '^etag:' "$headers" | cut -d' ' -f2 | tr -d '\r')
+      price=$(grep -o '"price":[0-9]*' <<< "$body" | cut -d: -f2)
+      status=$(curl -s -o /dev/null -w '%{http_code}' -X PUT "$BASE_URL/api/cars/$id" \
+        -H 'Content-Type: application/json' -H "If-Match: $etag" \
+        -d "{\"price\":$((price + 1))}")
+      if [[ $status == 200 ]]; then
+        accepted=$((accepted + 1))
+        break
+      elif [[ $status == 412 ]]; then
+        conflicts=$((conflicts + 1))
+      else
+        echo "worker $1: unexpected status $status" >&2
+        break
+      fi
+    done
+  done
+  echo "$accepted $conflicts" > "$WORK_DIR/result.$1"
+}
+
+START=$(date +%s.%N)
+for ((t = 0; t < THREADS; t++)); do
+  worker "$t" &
+done
+wait
+END=$(date +%s.%N)
+
+# ── 3. Report ──────────────────────────────────────────────────────────────
+ACCEPTED=0
+CONFLICTS=0
+for f in "$WORK_DIR"/result.*; do
+  read -r a c < "$f"
+  ACCEPTED=$((ACCEPTED + a))
+  CONFLICTS=$((CONFLICTS + c))
+done
+
+FINAL_SUM=0
+for id in "${IDS[@]}"; do
+  price=$(curl -sf "$BASE_URL/api/cars/$id" | grep -o '"price":[0-9]*' | cut -d: -f2)
+  FINAL_SUM=$((FINAL_SUM + price))
+done
+EXPECTED_SUM=$((HOT_CARS * INITIAL_PRICE + ACCEPTED))
+
+ELAPSED=$(echo "$END - $START" | bc)
+echo "Threads: $THREADS, hot cars: $HOT_CARS, updates per thread: $UPDATES"
+echo "Accepted updates: $ACCEPTED, 412 retries: $CONFLICTS"
+echo "Elapsed: ${ELAPSED}s, $(echo "scale=1; $ACCEPTED / $ELAPSED" | bc) updates/s"
+echo "Price sum: $FINAL_SUM, expected: $EXPECTED_SUM"
+if [[ $FINAL_SUM -eq $EXPECTED_SUM ]]; then
+  echo "OK - no lost updates"
+else
+  echo "LOST UPDATES: $((EXPECTED_SUM - FINAL_SUM))"
+  exit 1
+fi
+
+for id in "${IDS[@]}"; do
+  curl -sf -X DELETE "$BASE_URL/api/cars/$id" > /dev/null
+done
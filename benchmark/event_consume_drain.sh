@@ -0,0 +1,60 @@
+#!/usr/bin/env bash
+# ═══════════════════════════════════════════════════════════════════════════
+# EVENT CONSUMER DRAIN BENCHMARK - how fast car.events.queue is emptied
+# ═══════════════════════════════════════════════════════════════════════════
+#
+# Publishes MESSAGES test events (all routed to car.events.queue through the
+# topic exchange's car.# binding) with POST /api/rabbitmq/test/batch, then
+# follows the car.events.consumed counter until all of them were consumed
+# and reports the drain rate.
+#
+# The consumer mode is an application setting - run once per mode:
+#   bennycar.events.consumer.mode=single   one message + one ack per call
+#   bennycar.events.consumer.mode=batch    bulk processing + multiple=true ack
+#
+# Keep MESSAGES well below the queue's x-max-length (10000), and low enough
+# that single mode drains it within the 60 s message TTL.
+#
+# Usage (application and RabbitMQ running, car.events.queue empty):
+#   benchmark/event_consume_drain.sh [BASE_URL] [MESSAGES]
+#   benchmark/event_consume_drain.sh http://localhost:8080 2000
+# ═══════════════════════════════════════════════════════════════════════════
+
+set -euo pipefail
+
+BASE_URL=${1:-http://localhost:8080}
+MESSAGES=${2:-2000}
+STALL_SECONDS=10
+
+consumed() {
+  curl -sf "$BASE_URL/actuator/metrics/car.events.consumed" \
+    | grep -o '"value":[0-9.E]*' | head -1 | cut -d: -f2 | awk '{ printf "%d", $1 }'
+}
+
+start_count=$(consumed)
+start=$(date +%s.%N)
+curl -sf -X POST "$BASE_URL/api/rabbitmq/test/batch?count=$MESSAGES&mode=batched" > /dev/null
+
+target=$((start_count + MESSAGES))
+last=$start_count
+last_change=$(date +%s)
+while :; do
+  count=$(consumed)
+  if ((count >= target)); then
+    break
+  fi
+  if ((count != last)); then
+    last=$count
+    last_change=$(date +%s)
+  elif (($(date +%s) - last_change > STALL_SECONDS)); then
+    echo "Stalled at $((count - start_count)) of $MESSAGES consumed (expired, dead-lettered or failed?)" >&2
+    break
+  fi
+  sleep 0.1
+done
+end=$(date +%s.%N)
+
+drained=$(($(consumed) - start_count))
+drained=$((drained > MESSAGES ? MESSAGES : drained))
+awk -v n="$drained" -v s="$start" -v e="$end" \
+  'BEGIN { printf "%d messages drained in %.2f s: %.0f msgs/s\n", n, e - s, n / (e - s) }'
@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+# ═══════════════════════════════════════════════════════════════════════════
+# EVENT PUBLISH BATCHING BENCHMARK - one AMQP message per event vs. batched
+# ═══════════════════════════════════════════════════════════════════════════
+#
+# Drives POST /api/rabbitmq/test/batch in two modes with the same load:
+#   single  - every CarEventMessage is its own AMQP message
+#   batched - messages are buffered per routing key (CarEventBatchingStrategy,
+#             bennycar.events.batching.size / linger) and consumers de-batch
+#
+# Each mode runs ROUNDS times after one warm-up round; the best msgs/s and
+# the p99 per-call publish latency of that round are reported. Batched runs
+# include the final flush in their duration.
+#
+# Usage (application and RabbitMQ running):
+#   benchmark/event_publish_batching.sh [BASE_URL] [MESSAGES] [ROUNDS]
+#   benchmark/event_publish_batching.sh http://localhost:8080 100000 3
+# ═══════════════════════════════════════════════════════════════════════════
+
+set -euo pipefail
+
+BASE_URL=${1:-http://localhost:8080}
+MESSAGES=${2:-100000}
+ROUNDS=${3:-3}
+
+field() {
+  grep -o "\"$1\":[0-9.E-]*" <<< "$2" | cut -d: -f2
+}
+
+run_mode() {
+  local mode=$1 best_rate=0 best_p99=0 response rate p99
+  curl -sf -X POST "$BASE_URL/api/rabbitmq/test/batch?count=$((MESSAGES / 10))&mode=$mode" > /dev/null
+  for ((r = 0; r < ROUNDS; r++)); do
+    response=$(curl -sf -X POST "$BASE_URL/api/rabbitmq/test/batch?count=$MESSAGES&mode=$mode")
+    rate=$(field messagesPerSecond "$response")
+    p99=$(field publishLatencyP99Micros "$response")
+    if awk -v a="$rate" -v b="$best_rate" 'BEGIN { exit !(a > b) }'; then
+      best_rate=$rate
+      best_p99=$p99
+    fi
+  done
+  printf "%-8s %14.0f msgs/s   p99 publish %10.1f µs\n" "$mode" "$best_rate" "$best_p99"
+}
+
+echo "Messages per round: $MESSAGES, rounds: $ROUNDS"
+run_mode single
+run_mode batched
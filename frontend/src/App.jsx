@@ -6,7 +6,9 @@ import './App.css';
 
 function App() {
   const [cars, setCars] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [error, setError] = useState(null);
   const [showForm, setShowForm] = useState(false);
   const [editingCar, setEditingCar] = useState(null);
@@ -17,13 +19,14 @@ function App() {
     loadCars();
   }, []);
 
+  // Load the first page; further pages are fetched on demand (loadMoreCars)
   const loadCars = async () => {
     try {
       setLoading(true);
       setError(null);
-      const data = await carService.getAllCars();
-      // Ensure we always set an array to avoid `.map`/`.filter` errors
-      setCars(Array.isArray(data) ? data : []);
+      const page = await carService.getCarsPage();
+      setCars(page.cars);
+      setNextCursor(page.nextCursor);
     } catch (err) {
       setError('Failed to load cars. Please make sure the backend is running.');
       console.error('Error loading cars:', err);
@@ -32,14 +35,37 @@ function App() {
     }
   };
 
+  const loadMoreCars = async () => {
+    if (!nextCursor || loadingMore) return;
+    try {
+      setLoadingMore(true);
+      const page = await carService.getCarsPage(nextCursor);
+      setCars(prev => [...prev, ...page.cars]);
+      setNextCursor(page.nextCursor);
+    } catch (err) {
+      alert('Failed to load more cars');
+      console.error('Error loading more cars:', err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleAddCar = () => {
     setEditingCar(null);
     setShowForm(true);
   };
 
-  const handleEditCar = (car) => {
-    setEditingCar(car);
-    setShowForm(true);
+  const handleEditCar = async (car) => {
+    // List endpoints return card summaries without the description; load the
+    // full car for the form, a summary would save the description as empty
+    try {
+      const fullCar = await carService.getCarById(car.id);
+      setEditingCar(fullCar);
+      setShowForm(true);
+    } catch (err) {
+      setError('Failed to load the car. Please try again.');
+      console.error('Error loading car details:', err);
+    }
   };
 
   const handleDeleteCar = async (id) => {
@@ -143,8 +169,8 @@ function App() {
 
         <div className="stats-bar">
           <div className="stat-item">
-            <span className="stat-label">Total Cars:</span>
-            <span className="stat-value">{cars.length}</span>
+            <span className="stat-label">Loaded Cars:</span>
+            <span className="stat-value">{cars.length}{nextCursor ? '+' : ''}</span>
           </div>
           <div className="stat-item">
             <span className="stat-label">Showing:</span>
@@ -190,6 +216,14 @@ function App() {
             ))}
           </div>
         )}
+
+        {!loading && !error && nextCursor && (
+          <div className="load-more">
+            <button className="btn btn-secondary" onClick={loadMoreCars} disabled={loadingMore}>
+              {loadingMore ? 'Loading...' : 'Load More'}
+            </button>
+          </div>
+        )}
       </main>
 
       {showForm && (
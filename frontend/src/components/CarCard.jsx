@@ -67,12 +67,6 @@ const CarCard = ({ car, onEdit, onDelete }) => {
           <span className="label">Location:</span>
           <span className="value">{car.location}</span>
         </div>
-        {car.description && (
-          <div className="car-description">
-            <span className="label">Description:</span>
-            <p>{car.description}</p>
-          </div>
-        )}
         <div className="car-price">
           <span className="price">{formatPrice(car.price)}</span>
         </div>
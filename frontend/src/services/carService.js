@@ -2,28 +2,33 @@ import axios from 'axios';
 
 const API_BASE_URL = import.meta.env.VITE_API_BASE_URL || 'http://localhost:8081/api/cars';
 
+// Normalize one page of a list response to an array of cars.
+// 204 No Content arrives as an empty body.
+const pageItems = (d) => {
+  if (Array.isArray(d)) return d;
+  if (d == null || d === '') return [];
+  if (Array.isArray(d.data)) return d.data;
+  if (Array.isArray(d.cars)) return d.cars;
+  return [];
+};
+
+// Fetch ONE page of a cursor-paginated list endpoint.
+// Resolves to { cars, nextCursor }; nextCursor is null on the last page.
+const fetchPage = async (url, cursor) => {
+  const response = await axios.get(url, { params: cursor ? { cursor } : {} });
+  const d = response.data;
+  return {
+    cars: pageItems(d),
+    nextCursor: d && d.nextCursor ? d.nextCursor : null
+  };
+};
+
 const carService = {
-  // Get all cars
-  getAllCars: async () => {
-    const response = await axios.get(API_BASE_URL);
-    // Normalize the response to return an array of cars.
-    // Some backends may return { data: [...] } or { cars: [...] } or the array directly.
-    const d = response.data;
-    if (Array.isArray(d)) return d;
-    if (d == null) return [];
-    if (Array.isArray(d.data)) return d.data;
-    if (Array.isArray(d.cars)) return d.cars;
-    // If the payload is an object with numeric keys (unlikely) convert to array
-    if (typeof d === 'object') {
-      try {
-        const values = Object.values(d).filter(v => v && typeof v === 'object');
-        if (values.length > 0 && Array.isArray(values[0])) return values[0];
-      } catch (e) {
-        e.exceptions
-      }
-    }
-    // Fallback: return empty array to avoid runtime errors in the UI
-    return [];
+  // Get one page of cars
+  // The backend pages list endpoints with an opaque cursor ({ data, nextCursor });
+  // pass the previous page's nextCursor to get the next one.
+  getCarsPage: async (cursor = null) => {
+    return fetchPage(API_BASE_URL, cursor);
   },
 
   // Get car by ID
@@ -49,16 +54,15 @@ const carService = {
     await axios.delete(`${API_BASE_URL}/${id}`);
   },
 
-  // Get available cars
+  // Get available cars (one prebuilt snapshot of the whole available inventory)
   getAvailableCars: async () => {
-    const response = await axios.get(`${API_BASE_URL}/available`);
-    return response.data;
+    const response = await axios.get(`${API_BASE_URL}/available/all`);
+    return pageItems(response.data);
   },
 
-  // Get cars by brand
-  getCarsByBrand: async (brand) => {
-    const response = await axios.get(`${API_BASE_URL}/brand/${brand}`);
-    return response.data;
+  // Get one page of cars by brand
+  getCarsByBrand: async (brand, cursor = null) => {
+    return fetchPage(`${API_BASE_URL}/brand/${brand}`, cursor);
   }
 };
 
@@ -1,12 +1,27 @@
 package de.bennycar.config;
 
+import de.bennycar.messaging.CarEventBatchingStrategy;
+import de.bennycar.messaging.CarEventMessageConverter;
+import de.bennycar.messaging.CarEventRetryTiers;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.ContainerCustomizer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.BatchingRabbitTemplate;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * ═══════════════════════════════════════════════════════════════════════════
@@ -17,9 +32,9 @@ import org.springframework.context.annotation.Configuration;
  * 1. EXCHANGES - Route messages to queues based on routing rules
  * 2. QUEUES - Store messages until consumers process them
  * 3. BINDINGS - Connect exchanges to queues with routing keys
- * 4. DEAD LETTER EXCHANGE (DLX) - Handle failed/rejected messages
- * 5. MESSAGE CONVERTER - Serialize/deserialize messages (JSON)
- * 6. RABBIT TEMPLATE - Send messages to RabbitMQ
+ * 4. DEAD LETTER EXCHANGE (DLX) - Handle failed/rejected messages (plus delayed retry tiers)
+ * 5. MESSAGE CONVERTER - Serialize/deserialize messages (JSON or binary)
+ * 6. RABBIT TEMPLATE - Send messages to RabbitMQ (plus a batching variant)
  *
  * ═══════════════════════════════════════════════════════════════════════════
  */
@@ -82,6 +97,17 @@ public class RabbitMQConfig {
      */
     public static final String CAR_DLX_EXCHANGE = "car.dlx.exchange";
 
+    /** Routing key on the DLX for messages parked in car.events.dlq */
+    public static final String CAR_EVENTS_FAILED_KEY = "car.events.failed";
+
+    /**
+     * HEADERS EXCHANGE - Routes on message HEADERS instead of the routing key
+     * Use case: one message, several independent properties to route on
+     * Example: a CHANGED event with headers changed-price and changed-availability reaches the
+     * price alert AND the inventory queue, and car.events.queue exactly once
+     */
+    public static final String CAR_HEADERS_EXCHANGE = "car.headers.exchange";
+
     // ═══════════════════════════════════════════════════════════════════════
     // CONCEPT 3: ROUTING KEYS
     // ═══════════════════════════════════════════════════════════════════════
@@ -94,10 +120,17 @@ public class RabbitMQConfig {
     public static final String CAR_DELETED_KEY = "car.deleted";
     public static final String CAR_PRICE_CHANGED_KEY = "car.price.changed";
     public static final String CAR_AVAILABILITY_KEY = "car.availability.changed";
+    /** CHANGED events (headers exchange) - only informational, suffixed with the change mask */
+    public static final String CAR_CHANGED_KEY = "car.changed";
 
     /** Pattern for topic exchange - matches all car events */
     public static final String CAR_ALL_EVENTS_PATTERN = "car.#";
 
+    /** Headers set on every CarEventMessage (CarEventMessageConverter), bound on the headers exchange */
+    public static final String HEADER_EVENT_TYPE = "car-event";
+    public static final String HEADER_PRICE_CHANGED = "changed-price";
+    public static final String HEADER_AVAILABILITY_CHANGED = "changed-availability";
+
     // ═══════════════════════════════════════════════════════════════════════
     // CONCEPT 4: MESSAGE CONVERTER - JSON Serialization
     // ═══════════════════════════════════════════════════════════════════════
@@ -115,10 +148,22 @@ public class RabbitMQConfig {
      * Example:
      *   Car car = new Car("Tesla", "Model 3");
      *   rabbitTemplate.convertAndSend(exchange, routingKey, car); // Auto-converts to JSON
+     *
+     * CarEventMessages can instead be written in a compact binary format
+     * (bennycar.events.codec: binary, see CarEventBinaryCodec). Reading always
+     * follows the content type of the message, so JSON and binary producers can
+     * run side by side during a rollout. Templates and listener containers all
+     * use this one converter.
      */
     @Bean
-    public MessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public MessageConverter messageConverter(@Value("${bennycar.events.codec:json}") String codec) {
+        boolean binary = switch (codec) {
+            case "json" -> false;
+            case "binary" -> true;
+            default -> throw new IllegalArgumentException(
+                    "bennycar.events.codec must be 'json' or 'binary', was: " + codec);
+        };
+        return new CarEventMessageConverter(new Jackson2JsonMessageConverter(), binary);
     }
 
     // ═══════════════════════════════════════════════════════════════════════
@@ -135,14 +180,127 @@ public class RabbitMQConfig {
      *
      * Usage in your code:
      *   rabbitTemplate.convertAndSend("exchange.name", "routing.key", messageObject);
+     *
+     * MANDATORY: a message no queue is bound for is returned to the sender instead
+     * of silently dropped. Together with publisher-confirm-type: correlated this lets
+     * PublisherConfirmTracker (which registers the confirm and returns callbacks)
+     * know for every tracked send whether the broker accepted and routed it.
      */
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+    @Primary
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
-        template.setMessageConverter(jsonMessageConverter());
+        template.setMessageConverter(messageConverter);
+        template.setMandatory(true);
         return template;
     }
 
+    // ═══════════════════════════════════════════════════════════════════════
+    // CONCEPT 5b: BATCHING - many messages per AMQP frame
+    // ═══════════════════════════════════════════════════════════════════════
+    /**
+     * Batch format shared by the batching template and every listener container
+     * (see CarEventBatchingStrategy for the size / buffer / linger rules)
+     */
+    @Bean
+    public CarEventBatchingStrategy carEventBatchingStrategy(
+            @Value("${bennycar.events.batching.size:100}") int batchSize,
+            @Value("${bennycar.events.batching.buffer-limit:262144}") int bufferLimit,
+            @Value("${bennycar.events.batching.linger:10ms}") Duration linger) {
+        return new CarEventBatchingStrategy(batchSize, bufferLimit, linger.toMillis());
+    }
+
+    /**
+     * Second template for raw load tests (CarEventProducer.publishBatched): buffers
+     * per exchange + routing key and flushes on size, bytes or linger time
+     * (scheduled on its own thread).
+     *
+     * Not mandatory and without confirms. Car events are batched by the outbox
+     * relay instead, which confirms each batch message and marks all its rows sent.
+     * rabbitTemplate stays @Primary for everything else.
+     */
+    @Bean
+    public BatchingRabbitTemplate batchingRabbitTemplate(ConnectionFactory connectionFactory,
+                                                         MessageConverter messageConverter,
+                                                         CarEventBatchingStrategy carEventBatchingStrategy) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("amqp-batch-");
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+
+        BatchingRabbitTemplate template = new BatchingRabbitTemplate(connectionFactory, carEventBatchingStrategy,
+                scheduler);
+        template.setMessageConverter(messageConverter);
+        return template;
+    }
+
+    /**
+     * Listener containers split batches with the same strategy; @RabbitListener
+     * methods keep receiving single CarEventMessages
+     */
+    @Bean
+    public ContainerCustomizer<SimpleMessageListenerContainer> batchingContainerCustomizer(
+            CarEventBatchingStrategy carEventBatchingStrategy) {
+        return container -> container.setBatchingStrategy(carEventBatchingStrategy);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // CONCEPT 5c: BATCH LISTENER - many messages per listener call
+    // ═══════════════════════════════════════════════════════════════════════
+    /**
+     * Container factory for CarEventConsumer.consumeCarEventBatch
+     *
+     * The container collects up to batch-size messages and hands them to the
+     * listener as one List; if fewer arrive, the batch is closed after
+     * batch-timeout. Producer batches are de-batched into the same List.
+     *
+     * Prefetch must be at least batch-size (otherwise a batch could never fill);
+     * the default is two batches, so the next one is already on the wire while
+     * the current one is processed.
+     *
+     * Everything else (acknowledge mode, retry, message converter) comes from
+     * spring.rabbitmq.listener.simple.*, like the default factory.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory carEventBatchListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            CarEventBatchingStrategy carEventBatchingStrategy,
+            @Value("${bennycar.events.consumer.batch-size:50}") int batchSize,
+            @Value("${bennycar.events.consumer.batch-timeout:100ms}") Duration batchTimeout,
+            @Value("${bennycar.events.consumer.prefetch:100}") int prefetch) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setBatchReceiveTimeout(batchTimeout.toMillis());
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setBatchingStrategy(carEventBatchingStrategy);
+        return factory;
+    }
+
+    /**
+     * Container factory for CarEventConsumer.consumeCarEventInLane
+     *
+     * Lane threads ack out of order, so every message handed to a lane stays
+     * unacked until processed: prefetch = lanes × queue-capacity lets all lanes
+     * fill up before the broker stops delivering.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory carEventLaneListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            CarEventBatchingStrategy carEventBatchingStrategy,
+            @Value("${bennycar.events.lanes.count:8}") int laneCount,
+            @Value("${bennycar.events.lanes.queue-capacity:100}") int laneQueueCapacity) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setPrefetchCount(laneCount * laneQueueCapacity);
+        factory.setBatchingStrategy(carEventBatchingStrategy);
+        return factory;
+    }
+
     // ═══════════════════════════════════════════════════════════════════════
     // CONCEPT 6: EXCHANGE DECLARATIONS
     // ═══════════════════════════════════════════════════════════════════════
@@ -208,6 +366,18 @@ public class RabbitMQConfig {
         return new FanoutExchange(CAR_FANOUT_EXCHANGE, true, false);
     }
 
+    /**
+     * 6.3b - HEADERS EXCHANGE Declaration
+     *
+     * Carries the composite CHANGED event (see CarEventMessage.getChanges).
+     * Routing key is ignored; each binding matches on header presence.
+     * A queue whose bindings match several times still gets ONE copy per message.
+     */
+    @Bean
+    public HeadersExchange carHeadersExchange() {
+        return new HeadersExchange(CAR_HEADERS_EXCHANGE, true, false);
+    }
+
     /**
      * 6.4 - DEAD LETTER EXCHANGE (DLX) Declaration
      *
@@ -270,7 +440,7 @@ public class RabbitMQConfig {
                 .withArgument("x-dead-letter-exchange", CAR_DLX_EXCHANGE)
 
                 // PROPERTY 2: Routing key for failed messages sent to DLX
-                .withArgument("x-dead-letter-routing-key", "car.events.failed")
+                .withArgument("x-dead-letter-routing-key", CAR_EVENTS_FAILED_KEY)
 
                 // PROPERTY 3: Message Time-To-Live - messages expire after 60 seconds
                 // Use case: Price alerts are only relevant for short time
@@ -327,6 +497,21 @@ public class RabbitMQConfig {
         return QueueBuilder.durable(CAR_EVENTS_DLQ).build();
     }
 
+    /**
+     * 7.5 - CACHE INVALIDATION QUEUE (one per application instance)
+     *
+     * car.events.queue is shared: competing consumers mean each event reaches only
+     * ONE instance. Cache invalidation must reach EVERY instance, so each one
+     * declares its own AnonymousQueue:
+     * - Server-named (spring.gen-...), unique per instance
+     * - Exclusive + auto-delete: disappears when the instance disconnects
+     * - Non-durable: a restarted instance starts with an empty cache anyway
+     */
+    @Bean
+    public AnonymousQueue carCacheInvalidationQueue() {
+        return new AnonymousQueue();
+    }
+
     // ═══════════════════════════════════════════════════════════════════════
     // CONCEPT 8: BINDINGS - Connect Exchanges to Queues
     // ═══════════════════════════════════════════════════════════════════════
@@ -376,6 +561,37 @@ public class RabbitMQConfig {
                 .with(CAR_DELETED_KEY);         // Exact routing key: "car.deleted"
     }
 
+    /**
+     * 8.1b - CACHE INVALIDATION BINDINGS
+     *
+     * CREATED and DELETED come through the direct exchange, every change to an existing
+     * car (update, patch, reprice, import) as CHANGED through the headers exchange.
+     */
+    @Bean
+    public Binding bindingCacheInvalidationCreated(AnonymousQueue carCacheInvalidationQueue,
+                                                   DirectExchange carDirectExchange) {
+        return BindingBuilder.bind(carCacheInvalidationQueue).to(carDirectExchange).with(CAR_CREATED_KEY);
+    }
+
+    @Bean
+    public Binding bindingCacheInvalidationUpdated(AnonymousQueue carCacheInvalidationQueue,
+                                                   DirectExchange carDirectExchange) {
+        return BindingBuilder.bind(carCacheInvalidationQueue).to(carDirectExchange).with(CAR_UPDATED_KEY);
+    }
+
+    @Bean
+    public Binding bindingCacheInvalidationDeleted(AnonymousQueue carCacheInvalidationQueue,
+                                                   DirectExchange carDirectExchange) {
+        return BindingBuilder.bind(carCacheInvalidationQueue).to(carDirectExchange).with(CAR_DELETED_KEY);
+    }
+
+    @Bean
+    public Binding bindingCacheInvalidationChanged(AnonymousQueue carCacheInvalidationQueue,
+                                                   HeadersExchange carHeadersExchange) {
+        return BindingBuilder.bind(carCacheInvalidationQueue).to(carHeadersExchange)
+                .where(HEADER_EVENT_TYPE).exists();
+    }
+
     /**
      * 8.2 - TOPIC EXCHANGE BINDINGS with WILDCARD PATTERNS
      *
@@ -429,6 +645,33 @@ public class RabbitMQConfig {
                 .with(CAR_AVAILABILITY_KEY);    // Only availability changes
     }
 
+    /**
+     * 8.4b - HEADERS EXCHANGE BINDINGS for the composite CHANGED event
+     *
+     * One CHANGED message replaces PRICE_CHANGED + AVAILABILITY_CHANGED + UPDATED:
+     *   car.events.queue       ← every CHANGED (header car-event present)
+     *   car.price.alert.queue  ← only if header changed-price is present
+     *   car.inventory.queue    ← only if header changed-availability is present
+     *
+     * Before, car.events.queue got the same update up to three times
+     * (car.updated on the direct exchange + car.# on the topic exchange).
+     */
+    @Bean
+    public Binding bindingCarEventsChanged(Queue carEventsQueue, HeadersExchange carHeadersExchange) {
+        return BindingBuilder.bind(carEventsQueue).to(carHeadersExchange).where(HEADER_EVENT_TYPE).exists();
+    }
+
+    @Bean
+    public Binding bindingCarPriceAlertChanged(Queue carPriceAlertQueue, HeadersExchange carHeadersExchange) {
+        return BindingBuilder.bind(carPriceAlertQueue).to(carHeadersExchange).where(HEADER_PRICE_CHANGED).exists();
+    }
+
+    @Bean
+    public Binding bindingCarInventoryChanged(Queue carInventoryQueue, HeadersExchange carHeadersExchange) {
+        return BindingBuilder.bind(carInventoryQueue).to(carHeadersExchange)
+                .where(HEADER_AVAILABILITY_CHANGED).exists();
+    }
+
     /**
      * 8.5 - FANOUT EXCHANGE BINDINGS
      *
@@ -479,7 +722,50 @@ public class RabbitMQConfig {
         return BindingBuilder
                 .bind(carEventsDeadLetterQueue)
                 .to(carDeadLetterExchange)
-                .with("car.events.failed");     // Must match x-dead-letter-routing-key
+                .with(CAR_EVENTS_FAILED_KEY);   // Must match x-dead-letter-routing-key
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // CONCEPT 9: DELAYED RETRY TIERS - TTL queues that dead-letter back
+    // ═══════════════════════════════════════════════════════════════════════
+    /**
+     * Retry delays, shortest first (see CarEventRetryTiers)
+     *
+     * Config: bennycar.events.retry.delays (comma separated durations)
+     */
+    @Bean
+    public CarEventRetryTiers carEventRetryTiers(
+            @Value("${bennycar.events.retry.delays:1s,10s,1m}") List<Duration> delays) {
+        return new CarEventRetryTiers(delays);
+    }
+
+    /**
+     * 9.1 - One fanout exchange + TTL queue per tier
+     *
+     * Failed message → car.retry.<delay>.exchange (routing key = origin queue)
+     *   → car.retry.<delay>.queue, no consumer, waits x-message-ttl
+     *   → expires, dead-lettered to the DEFAULT exchange with its routing key
+     *   → back in the origin queue, with one more x-death entry
+     *
+     * Instead of basicNack(requeue=true), which puts a poison message straight
+     * back at the head of the queue and spins broker and consumer forever.
+     * Declarables: the number of tiers comes from configuration.
+     */
+    @Bean
+    public Declarables carRetryTierDeclarables(CarEventRetryTiers carEventRetryTiers) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int tier = 0; tier < carEventRetryTiers.size(); tier++) {
+            Duration delay = carEventRetryTiers.delay(tier);
+            FanoutExchange exchange = new FanoutExchange(CarEventRetryTiers.exchangeName(delay), true, false);
+            Queue queue = QueueBuilder.durable(CarEventRetryTiers.queueName(delay))
+                    .withArgument("x-message-ttl", delay.toMillis())
+                    .withArgument("x-dead-letter-exchange", "")    // default exchange: routing key = queue name
+                    .build();
+            declarables.add(exchange);
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(exchange));
+        }
+        return new Declarables(declarables);
     }
 }
 
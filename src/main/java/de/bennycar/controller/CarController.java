@@ -1,13 +1,38 @@
 package de.bennycar.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.bennycar.dto.CarImportReport;
+import de.bennycar.dto.CarPatch;
+import de.bennycar.dto.CarRepriceRequest;
+import de.bennycar.dto.CarSearchCriteria;
+import de.bennycar.dto.CarVersion;
+import de.bennycar.dto.CursorPage;
+import de.bennycar.dto.PageResponse;
 import de.bennycar.model.Car;
+import de.bennycar.model.Versioned;
+import de.bennycar.service.AvailableCarsSnapshot;
+import de.bennycar.service.CarImportService;
 import de.bennycar.service.CarService;
+import de.bennycar.service.DuplicateVinException;
+import de.bennycar.service.VersionConflictException;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/cars")
@@ -17,6 +42,12 @@ public class CarController {
     @Autowired
     private CarService carService;
 
+    @Autowired
+    private CarImportService carImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // Create a new car
     @PostMapping
     public ResponseEntity<Car> createCar(@RequestBody Car car) {
@@ -28,116 +59,234 @@ public class CarController {
         }
     }
 
-    // Get all cars
-    @GetMapping
-    public ResponseEntity<List<Car>> getAllCars() {
+    // Create many cars at once (JDBC-batched inserts, one batched event publish)
+    @PostMapping("/batch")
+    public ResponseEntity<?> createCars(@RequestBody List<Car> cars) {
         try {
-            List<Car> cars = carService.getAllCars();
-            if (cars.isEmpty()) {
-                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-            }
-            return new ResponseEntity<>(cars, HttpStatus.OK);
+            List<Car> savedCars = carService.saveCars(cars);
+            return new ResponseEntity<>(savedCars, HttpStatus.CREATED);
+        } catch (DuplicateVinException e) {
+            return new ResponseEntity<>(Map.of("error", "Duplicate VINs", "vins", e.getVins()),
+                    HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
-            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Bulk import a dealer feed: CSV with header row (text/csv) or one car per line (application/x-ndjson)
+    // Streamed into PostgreSQL with COPY and upserted by VIN; only changed cars produce events
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> importCars(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                        InputStream body) {
+        String format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? CarImportService.FORMAT_NDJSON
+                : CarImportService.FORMAT_CSV;
+        try {
+            CarImportReport report = carImportService.importCars(body, format);
+            HttpStatus status = report.getPhase() == CarImportReport.Phase.FAILED
+                    ? HttpStatus.INTERNAL_SERVER_ERROR
+                    : HttpStatus.OK;
+            return new ResponseEntity<>(report, status);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
         }
     }
 
-    // Get car by ID
+    // Bulk price change for all cars matching the filters: one set-based UPDATE, batched price CHANGED events
+    @PostMapping("/reprice")
+    public ResponseEntity<?> repriceCars(@RequestBody CarRepriceRequest request) {
+        try {
+            return new ResponseEntity<>(carService.repriceCars(request), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Progress of the imports currently running on this instance
+    @GetMapping("/import/status")
+    public ResponseEntity<Collection<CarImportReport>> getImportStatus() {
+        return new ResponseEntity<>(carImportService.getActiveImports(), HttpStatus.OK);
+    }
+
+    // Get all cars (keyset paginated: ?cursor=<nextCursor>&size=50, sparse: ?fields=brand,model,price)
+    @GetMapping
+    public ResponseEntity<CursorPage<?>> getAllCars(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestHeader HttpHeaders headers) {
+        return pageResponse(headers, fields, type -> carService.getAllCars(cursor, size, type));
+    }
+
+    // Get car by ID (conditional: ETag / Last-Modified, 304 answered from a version-only lookup)
     @GetMapping("/{id}")
-    public ResponseEntity<Car> getCarById(@PathVariable("id") Long id) {
+    public ResponseEntity<Car> getCarById(@PathVariable("id") Long id,
+                                          @RequestHeader HttpHeaders headers) {
+        if (CarValidators.isConditional(headers)) {
+            Optional<ResponseEntity<Car>> notModified = carService.getCarVersion(id)
+                    .flatMap(version -> notModified(headers, version));
+            if (notModified.isPresent()) {
+                return notModified.get();
+            }
+        }
         return carService.getCarById(id)
-                .map(car -> new ResponseEntity<>(car, HttpStatus.OK))
+                .map(this::carResponse)
                 .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
-    // Get car by VIN
+    // Get car by VIN (conditional like getCarById)
     @GetMapping("/vin/{vin}")
-    public ResponseEntity<Car> getCarByVin(@PathVariable("vin") String vin) {
+    public ResponseEntity<Car> getCarByVin(@PathVariable("vin") String vin,
+                                           @RequestHeader HttpHeaders headers) {
+        if (CarValidators.isConditional(headers)) {
+            Optional<ResponseEntity<Car>> notModified = carService.getCarVersionByVin(vin)
+                    .flatMap(version -> notModified(headers, version));
+            if (notModified.isPresent()) {
+                return notModified.get();
+            }
+        }
         return carService.getCarByVin(vin)
-                .map(car -> new ResponseEntity<>(car, HttpStatus.OK))
+                .map(this::carResponse)
                 .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     // Get cars by brand
     @GetMapping("/brand/{brand}")
-    public ResponseEntity<List<Car>> getCarsByBrand(@PathVariable("brand") String brand) {
-        try {
-            List<Car> cars = carService.getCarsByBrand(brand);
-            if (cars.isEmpty()) {
-                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-            }
-            return new ResponseEntity<>(cars, HttpStatus.OK);
-        } catch (Exception e) {
-            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+    public ResponseEntity<CursorPage<?>> getCarsByBrand(
+            @PathVariable("brand") String brand,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestHeader HttpHeaders headers) {
+        return pageResponse(headers, fields, type -> carService.getCarsByBrand(brand, cursor, size, type));
     }
 
     // Get cars by brand and model
     @GetMapping("/brand/{brand}/model/{model}")
-    public ResponseEntity<List<Car>> getCarsByBrandAndModel(
+    public ResponseEntity<CursorPage<?>> getCarsByBrandAndModel(
             @PathVariable("brand") String brand,
-            @PathVariable("model") String model) {
-        try {
-            List<Car> cars = carService.getCarsByBrandAndModel(brand, model);
-            if (cars.isEmpty()) {
-                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-            }
-            return new ResponseEntity<>(cars, HttpStatus.OK);
-        } catch (Exception e) {
-            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+            @PathVariable("model") String model,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestHeader HttpHeaders headers) {
+        return pageResponse(headers, fields,
+                type -> carService.getCarsByBrandAndModel(brand, model, cursor, size, type));
     }
 
     // Get available cars
     @GetMapping("/available")
-    public ResponseEntity<List<Car>> getAvailableCars() {
+    public ResponseEntity<CursorPage<?>> getAvailableCars(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestHeader HttpHeaders headers) {
+        return pageResponse(headers, fields, type -> carService.getAvailableCars(cursor, size, type));
+    }
+
+    // Get the whole available inventory from the prebuilt snapshot
+    // (strong ETag, gzip when accepted, 304 when unchanged)
+    @GetMapping("/available/all")
+    public ResponseEntity<byte[]> getAvailableCarsSnapshot(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            List<Car> cars = carService.getAvailableCars();
-            if (cars.isEmpty()) {
-                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            AvailableCarsSnapshot.Snapshot snapshot = carService.getAvailableCarsSnapshot();
+            boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+            String etag = gzip ? snapshot.getGzipEtag() : snapshot.getEtag();
+
+            if (etag.equals(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                        .build();
+            }
+
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .eTag(etag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .contentType(MediaType.APPLICATION_JSON);
+            if (gzip) {
+                builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
             }
-            return new ResponseEntity<>(cars, HttpStatus.OK);
+            return builder.body(gzip ? snapshot.getGzip() : snapshot.getJson());
         } catch (Exception e) {
-            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     // Get cars by price range
     @GetMapping("/price")
-    public ResponseEntity<List<Car>> getCarsByPriceRange(
+    public ResponseEntity<CursorPage<?>> getCarsByPriceRange(
             @RequestParam("min") Double minPrice,
-            @RequestParam("max") Double maxPrice) {
-        try {
-            List<Car> cars = carService.getCarsByPriceRange(minPrice, maxPrice);
-            if (cars.isEmpty()) {
-                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-            }
-            return new ResponseEntity<>(cars, HttpStatus.OK);
-        } catch (Exception e) {
-            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+            @RequestParam("max") Double maxPrice,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestHeader HttpHeaders headers) {
+        return pageResponse(headers, fields,
+                type -> carService.getCarsByPriceRange(minPrice, maxPrice, cursor, size, type));
     }
 
     // Get cars by year or newer
     @GetMapping("/year/{year}")
-    public ResponseEntity<List<Car>> getCarsByYearOrNewer(@PathVariable("year") Integer year) {
+    public ResponseEntity<CursorPage<?>> getCarsByYearOrNewer(
+            @PathVariable("year") Integer year,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestHeader HttpHeaders headers) {
+        return pageResponse(headers, fields, type -> carService.getCarsByYearOrNewer(year, cursor, size, type));
+    }
+
+    // Search cars by any combination of filters
+    // e.g. /search?brand=BMW&minYear=2020&maxPrice=50000&fuelType=HYBRID&sort=price,desc&page=0&size=20
+    @GetMapping("/search")
+    public ResponseEntity<PageResponse<Car>> searchCars(
+            @ModelAttribute CarSearchCriteria criteria,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "sort", required = false) String sort) {
         try {
-            List<Car> cars = carService.getCarsByYearOrNewer(year);
-            if (cars.isEmpty()) {
-                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-            }
-            return new ResponseEntity<>(cars, HttpStatus.OK);
+            return new ResponseEntity<>(carService.searchCars(criteria, page, size, sort), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            // Unknown sort field or direction
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    // Export cars as NDJSON (streamed, optional filters: brand, model, available, min, max, year)
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportCars(
+            @RequestParam(value = "brand", required = false) String brand,
+            @RequestParam(value = "model", required = false) String model,
+            @RequestParam(value = "available", required = false) Boolean isAvailable,
+            @RequestParam(value = "min", required = false) Double minPrice,
+            @RequestParam(value = "max", required = false) Double maxPrice,
+            @RequestParam(value = "year", required = false) Integer minYear,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"cars.ndjson\"");
+        carService.exportCars(brand, model, isAvailable, minPrice, maxPrice, minYear,
+                response.getOutputStream());
+    }
+
     // Update car
+    // If-Match: "<id>-<version>" makes the update conditional (412 if the car changed meanwhile)
     @PutMapping("/{id}")
-    public ResponseEntity<Car> updateCar(@PathVariable("id") Long id, @RequestBody Car car) {
+    public ResponseEntity<Car> updateCar(@PathVariable("id") Long id, @RequestBody Car car,
+                                         @RequestHeader HttpHeaders headers) {
+        Long expectedVersion = CarValidators.expectedVersion(headers, id);
         try {
-            Car updatedCar = carService.updateCar(id, car);
-            return new ResponseEntity<>(updatedCar, HttpStatus.OK);
+            return carResponse(carService.updateCar(id, car, expectedVersion));
+        } catch (VersionConflictException e) {
+            return new ResponseEntity<>(conflictStatus(expectedVersion));
         } catch (RuntimeException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         } catch (Exception e) {
@@ -145,6 +294,25 @@ public class CarController {
         }
     }
 
+    // Partial update: only the supplied fields, one UPDATE ... RETURNING statement
+    // ({} changes nothing and returns the car as it is)
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchCar(@PathVariable("id") Long id, @RequestBody CarPatch changes,
+                                      @RequestHeader HttpHeaders headers) {
+        Long expectedVersion = CarValidators.expectedVersion(headers, id);
+        try {
+            return carService.patchCar(id, changes, expectedVersion)
+                    .<ResponseEntity<?>>map(this::carResponse)
+                    .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        } catch (VersionConflictException e) {
+            return new ResponseEntity<>(conflictStatus(expectedVersion));
+        } catch (DataIntegrityViolationException e) {
+            return new ResponseEntity<>(Map.of("error", "VIN already exists"), HttpStatus.CONFLICT);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     // Delete car
     @DeleteMapping("/{id}")
     public ResponseEntity<HttpStatus> deleteCar(@PathVariable("id") Long id) {
@@ -155,4 +323,73 @@ public class CarController {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
-}
\ No newline at end of file
+
+    // Shared response mapping for paginated list endpoints
+    //
+    // Items are CarSummary projections (no description), or exactly the
+    // properties named in ?fields= (see CarFieldSelector).
+    //
+    // Responses carry ETag + Last-Modified with Cache-Control: no-cache, so browsers
+    // always revalidate instead of heuristically caching.
+    // Conditional requests first run the page query as a version-only projection
+    // (id + version + updatedAt, see CarVersion); if the page's ETag - built from the
+    // versions - still matches, answer 304 without loading or serializing the cars.
+    private ResponseEntity<CursorPage<?>> pageResponse(
+            HttpHeaders headers,
+            String fields,
+            Function<Class<? extends Versioned>, CursorPage<? extends Versioned>> query) {
+        try {
+            Set<String> fieldSet = CarFieldSelector.parse(fields);
+            // Different fieldsets are different representations → different ETags
+            String variant = fieldSet == null ? "" : String.join(",", fieldSet);
+
+            if (CarValidators.isConditional(headers)) {
+                CursorPage<? extends Versioned> versions = query.apply(CarVersion.class);
+                String etag = CarValidators.etag(versions, variant);
+                if (!versions.isEmpty()
+                        && CarValidators.isNotModified(headers, etag, CarValidators.lastModified(versions))) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                }
+            }
+
+            CursorPage<? extends Versioned> page = query.apply(CarFieldSelector.projectionFor(fieldSet));
+            if (page.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            CursorPage<?> body = fieldSet == null ? page : CarFieldSelector.select(page, fieldSet, objectMapper);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(CarValidators.etag(page, variant))
+                    .lastModified(CarValidators.lastModified(page))
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            // Malformed cursor or unknown field
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private Optional<ResponseEntity<Car>> notModified(HttpHeaders headers, Versioned version) {
+        String etag = CarValidators.etag(version);
+        if (CarValidators.isNotModified(headers, etag, CarValidators.lastModified(version))) {
+            return Optional.of(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * A failed If-Match is 412; an unconditional write that kept losing the race is 409
+     */
+    private static HttpStatus conflictStatus(Long expectedVersion) {
+        return expectedVersion != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT;
+    }
+
+    private ResponseEntity<Car> carResponse(Car car) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(CarValidators.etag(car))
+                .lastModified(CarValidators.lastModified(car))
+                .body(car);
+    }
+}
@@ -0,0 +1,83 @@
+package de.bennycar.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.bennycar.dto.CarSummary;
+import de.bennycar.dto.CursorPage;
+import de.bennycar.model.Car;
+import de.bennycar.model.Versioned;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sparse fieldsets for list endpoints: ?fields=brand,model,price
+ *
+ * 1. The requested fields pick the narrowest projection that covers them
+ *    (CarSummary unless description/createdAt are asked for)
+ * 2. Each item is then reduced to exactly the requested properties
+ *
+ * "id" is always included - it identifies the item and backs the cursor.
+ */
+final class CarFieldSelector {
+
+    private static final Set<String> SUMMARY_FIELDS = Set.of(
+            "id", "name", "vin", "brand", "model", "year", "color", "transmission", "fuelType",
+            "bodyType", "mileage", "price", "condition", "location", "isAvailable", "version", "updatedAt");
+
+    private static final Set<String> FULL_ONLY_FIELDS = Set.of("description", "createdAt");
+
+    private static final TypeReference<LinkedHashMap<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private CarFieldSelector() {
+    }
+
+    /**
+     * @return requested fields in request order, or null when no fields parameter was given
+     * @throws IllegalArgumentException for an unknown field name
+     */
+    static Set<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!SUMMARY_FIELDS.contains(name) && !FULL_ONLY_FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
+
+    static Class<? extends Versioned> projectionFor(Set<String> fields) {
+        if (fields != null && fields.stream().anyMatch(FULL_ONLY_FIELDS::contains)) {
+            return Car.class;
+        }
+        return CarSummary.class;
+    }
+
+    static CursorPage<Map<String, Object>> select(CursorPage<? extends Versioned> page, Set<String> fields,
+                                                  ObjectMapper objectMapper) {
+        List<Map<String, Object>> items = new ArrayList<>(page.getData().size());
+        for (Versioned car : page.getData()) {
+            Map<String, Object> all = objectMapper.convertValue(car, MAP_TYPE);
+            Map<String, Object> selected = new LinkedHashMap<>();
+            for (String field : fields) {
+                selected.put(field, all.get(field));
+            }
+            items.add(selected);
+        }
+        return new CursorPage<>(items, page.getNextCursor(), page.getSize());
+    }
+}
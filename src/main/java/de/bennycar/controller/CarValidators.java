@@ -0,0 +1,120 @@
+package de.bennycar.controller;
+
+import de.bennycar.dto.CursorPage;
+import de.bennycar.model.Versioned;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * HTTP validators (ETag / Last-Modified) for car resources.
+ *
+ * Single car:  ETag = "<id>-<version>" (the JPA @Version column), strong validator,
+ *              also accepted back as If-Match precondition for PUT / PATCH
+ * Page:        ETag = MD5 over the representation variant, every (id, version) in the
+ *              page and the next cursor, so edits, inserts and deletes inside the page
+ *              all change it.
+ * Last-Modified is derived from updatedAt.
+ */
+final class CarValidators {
+
+    /** Never a real version (versions start at 0), so the compare-and-set always fails */
+    static final long NO_MATCH = -1L;
+
+    private CarValidators() {
+    }
+
+    /**
+     * Did the client send If-None-Match or If-Modified-Since?
+     */
+    static boolean isConditional(HttpHeaders requestHeaders) {
+        return !requestHeaders.getIfNoneMatch().isEmpty() || requestHeaders.getIfModifiedSince() >= 0;
+    }
+
+    /**
+     * RFC 9110 evaluation for GET: If-None-Match wins (weak comparison),
+     * If-Modified-Since is only consulted when no If-None-Match was sent
+     */
+    static boolean isNotModified(HttpHeaders requestHeaders, String etag, long lastModified) {
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            for (String candidate : ifNoneMatch) {
+                String value = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+                if ("*".equals(value) || value.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = requestHeaders.getIfModifiedSince();
+        // HTTP dates have second precision
+        return ifModifiedSince >= 0 && lastModified >= 0 && (lastModified / 1000 * 1000) <= ifModifiedSince;
+    }
+
+    static String etag(Versioned car) {
+        return "\"" + car.getId() + "-" + car.getVersion() + "\"";
+    }
+
+    /**
+     * Version a PUT / PATCH must still see for the write to apply (If-Match, strong comparison)
+     *
+     * @return null when no If-Match or "If-Match: *" was sent (unconditional write),
+     *         NO_MATCH when none of the given ETags belongs to this car
+     */
+    static Long expectedVersion(HttpHeaders requestHeaders, Long id) {
+        List<String> ifMatch = requestHeaders.getIfMatch();
+        if (ifMatch.isEmpty() || ifMatch.contains("*")) {
+            return null;
+        }
+        String prefix = "\"" + id + "-";
+        for (String candidate : ifMatch) {
+            if (candidate.startsWith(prefix) && candidate.endsWith("\"")) {
+                try {
+                    return Long.parseLong(candidate.substring(prefix.length(), candidate.length() - 1));
+                } catch (NumberFormatException e) {
+                    // not one of ours, try the next one
+                }
+            }
+        }
+        return NO_MATCH;
+    }
+
+    static long lastModified(Versioned car) {
+        return epochMillis(car.getUpdatedAt());
+    }
+
+    /**
+     * @param variant distinguishes representations of the same page (e.g. the ?fields= selection)
+     */
+    static String etag(CursorPage<? extends Versioned> page, String variant) {
+        StringBuilder key = new StringBuilder(page.getData().size() * 24 + variant.length());
+        key.append(variant).append('|');
+        for (Versioned car : page.getData()) {
+            key.append(car.getId()).append(':').append(car.getVersion()).append(';');
+        }
+        key.append(page.getNextCursor());
+        return "\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Last-Modified of a page = the newest updatedAt in it
+     */
+    static long lastModified(CursorPage<? extends Versioned> page) {
+        long max = -1;
+        for (Versioned car : page.getData()) {
+            max = Math.max(max, epochMillis(car.getUpdatedAt()));
+        }
+        return max;
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        if (time == null) {
+            return -1;
+        }
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -1,5 +1,6 @@
 package de.bennycar.controller;
 
+import de.bennycar.config.RabbitMQConfig;
 import de.bennycar.dto.CarEventMessage;
 import de.bennycar.messaging.CarEventProducer;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,7 +8,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -221,13 +224,32 @@ public class RabbitMQTestController {
      * - Throughput (messages per second)
      * - Queue behavior under load
      *
+     * Modes:
+     * - logged  : sendToTopicExchange per message, with its step-by-step logging (default)
+     * - single  : one AMQP message per event, no logging
+     * - batched : events buffered per routing key into batched AMQP messages
+     *             (flushed when the routing key changes)
+     *             (CarEventBatchingStrategy), consumers de-batch transparently
+     *
+     * The response reports msgs/s and per-call publish latency (p50/p99);
+     * batched mode includes the final flush in the duration.
+     *
      * POST http://localhost:8080/api/rabbitmq/test/batch?count=100
+     * POST http://localhost:8080/api/rabbitmq/test/batch?count=100000&mode=batched
      */
     @PostMapping("/test/batch")
     public ResponseEntity<Map<String, Object>> testBatchMessages(
-            @RequestParam(defaultValue = "10") int count) {
+            @RequestParam(defaultValue = "10") int count,
+            @RequestParam(defaultValue = "logged") String mode) {
+
+        if (!List.of("logged", "single", "batched").contains(mode)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "mode must be one of: logged, single, batched"));
+        }
 
-        long startTime = System.currentTimeMillis();
+        long[] latencies = new long[count];
+        long startTime = System.nanoTime();
+        String previousRoutingKey = null;
 
         for (int i = 1; i <= count; i++) {
             CarEventMessage event = new CarEventMessage(
@@ -241,23 +263,42 @@ public class RabbitMQTestController {
                     "Batch test message #" + i
             );
 
-            // Rotate between different routing keys
-            String routingKey = switch (i % 3) {
+            // Three routing keys, one block each - a batch holds messages for ONE routing key
+            String routingKey = switch ((i - 1) * 3 / count) {
                 case 0 -> "car.created";
                 case 1 -> "car.price.changed";
                 default -> "car.availability.changed";
             };
 
-            carEventProducer.sendToTopicExchange(event, routingKey);
+            long sendStart = System.nanoTime();
+            if ("batched".equals(mode) && previousRoutingKey != null && !previousRoutingKey.equals(routingKey)) {
+                carEventProducer.flushBatches();
+            }
+            previousRoutingKey = routingKey;
+            switch (mode) {
+                case "single" -> carEventProducer.publish(RabbitMQConfig.CAR_TOPIC_EXCHANGE, routingKey, event);
+                case "batched" -> carEventProducer.publishBatched(RabbitMQConfig.CAR_TOPIC_EXCHANGE, routingKey, event);
+                default -> carEventProducer.sendToTopicExchange(event, routingKey);
+            }
+            latencies[i - 1] = System.nanoTime() - sendStart;
+        }
+        if ("batched".equals(mode)) {
+            carEventProducer.flushBatches();
         }
 
-        long duration = System.currentTimeMillis() - startTime;
+        long durationNanos = System.nanoTime() - startTime;
+        Arrays.sort(latencies);
 
         Map<String, Object> response = new HashMap<>();
         response.put("status", "Batch messages sent successfully");
+        response.put("mode", mode);
         response.put("messageCount", count);
-        response.put("durationMs", duration);
-        response.put("messagesPerSecond", count * 1000.0 / duration);
+        response.put("durationMs", durationNanos / 1_000_000);
+        response.put("messagesPerSecond", count * 1_000_000_000.0 / Math.max(durationNanos, 1));
+        if (count > 0) {
+            response.put("publishLatencyP50Micros", latencies[count / 2] / 1000.0);
+            response.put("publishLatencyP99Micros", latencies[(int) Math.ceil(count * 0.99) - 1] / 1000.0);
+        }
         response.put("tip", "Watch application logs to see consumers processing messages in parallel!");
 
         return ResponseEntity.ok(response);
@@ -301,7 +342,7 @@ public class RabbitMQTestController {
         response.put("expectedBehavior", Map.of(
                 "step1", "Consumer receives message",
                 "step2", "Processing fails",
-                "step3", "Retried 3 times",
+                "step3", "Retried after each delay in bennycar.events.retry.delays",
                 "step4", "Sent to Dead Letter Queue (DLQ)",
                 "step5", "DLQ consumer logs failure"
         ));
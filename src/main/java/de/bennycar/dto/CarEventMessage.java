@@ -1,6 +1,7 @@
 package de.bennycar.dto;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 /**
  * ═══════════════════════════════════════════════════════════════════════════
@@ -22,9 +23,26 @@ import java.time.LocalDateTime;
  */
 public class CarEventMessage {
 
+    /** Composite event for any change to an existing car; what changed is in {@link #changes} */
+    public static final String CHANGED = "CHANGED";
+
+    /** Bits of {@link #changes} */
+    public static final int CHANGED_PRICE = 1;
+    public static final int CHANGED_AVAILABILITY = 1 << 1;
+    public static final int CHANGED_DETAILS = 1 << 2;
+
+    /**
+     * EVENT ID - Unique per logical event (random UUID)
+     * Every copy of the event - outbox re-sends, publish retries, redeliveries,
+     * the same event reaching a queue through several bindings - carries the
+     * same id, so consumers can skip the ones they already processed.
+     * Null for events from producers that predate it.
+     */
+    private String eventId;
+
     /**
      * EVENT TYPE - What happened to the car
-     * Examples: "CREATED", "UPDATED", "DELETED", "PRICE_CHANGED", "SOLD"
+     * Examples: "CREATED", "CHANGED", "DELETED", "UPDATED", "PRICE_CHANGED", "SOLD"
      */
     private String eventType;
 
@@ -83,6 +101,13 @@ public class CarEventMessage {
      */
     private String message;
 
+    /**
+     * CHANGES - Bitmask of what a CHANGED event changed
+     * CHANGED_PRICE | CHANGED_AVAILABILITY | CHANGED_DETAILS (any other attribute)
+     * One CHANGED event replaces PRICE_CHANGED + AVAILABILITY_CHANGED + UPDATED
+     */
+    private Integer changes;
+
     // ═══════════════════════════════════════════════════════════════════════
     // CONSTRUCTORS
     // ═══════════════════════════════════════════════════════════════════════
@@ -90,6 +115,7 @@ public class CarEventMessage {
     /**
      * Default constructor required for JSON deserialization
      * Jackson (JSON library) needs this to create object from JSON
+     * (no eventId here - it comes from the message)
      */
     public CarEventMessage() {
         this.timestamp = LocalDateTime.now();
@@ -109,6 +135,7 @@ public class CarEventMessage {
         this.isAvailable = isAvailable;
         this.message = message;
         this.timestamp = LocalDateTime.now();
+        this.eventId = UUID.randomUUID().toString();
     }
 
     // ═══════════════════════════════════════════════════════════════════════
@@ -116,6 +143,14 @@ public class CarEventMessage {
     // ═══════════════════════════════════════════════════════════════════════
     // Required for JSON serialization/deserialization
 
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
     public String getEventType() {
         return eventType;
     }
@@ -196,10 +231,26 @@ public class CarEventMessage {
         this.message = message;
     }
 
+    public Integer getChanges() {
+        return changes;
+    }
+
+    public void setChanges(Integer changes) {
+        this.changes = changes;
+    }
+
+    /**
+     * Does this CHANGED event include the given CHANGED_* bit?
+     */
+    public boolean hasChange(int change) {
+        return changes != null && (changes & change) != 0;
+    }
+
     @Override
     public String toString() {
         return "CarEventMessage{" +
-                "eventType='" + eventType + '\'' +
+                "eventId='" + eventId + '\'' +
+                ", eventType='" + eventType + '\'' +
                 ", carId=" + carId +
                 ", vin='" + vin + '\'' +
                 ", brand='" + brand + '\'' +
@@ -209,6 +260,7 @@ public class CarEventMessage {
                 ", isAvailable=" + isAvailable +
                 ", timestamp=" + timestamp +
                 ", message='" + message + '\'' +
+                ", changes=" + changes +
                 '}';
     }
 }
@@ -0,0 +1,147 @@
+package de.bennycar.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ═══════════════════════════════════════════════════════════════════════════
+ * CAR IMPORT REPORT - Live progress and final result of one inventory import
+ * ═══════════════════════════════════════════════════════════════════════════
+ *
+ * Updated by the import while it runs (readable concurrently through
+ * GET /api/cars/import/status) and returned as the response of POST /api/cars/import.
+ *
+ * Phases: PARSING (rows streamed into the staging table via COPY)
+ *       → MERGING (set-based upsert into cars)
+ *       → RECORDING_EVENTS (outbox rows for changed cars)
+ *       → DONE | FAILED
+ *
+ * ═══════════════════════════════════════════════════════════════════════════
+ */
+public class CarImportReport {
+
+    public enum Phase { PARSING, MERGING, RECORDING_EVENTS, DONE, FAILED }
+
+    private static final int MAX_ERRORS = 20;
+
+    private final String importId = UUID.randomUUID().toString();
+    private final String format;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final long startNanos = System.nanoTime();
+
+    private volatile Phase phase = Phase.PARSING;
+    private volatile long durationMs;
+
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private volatile long inserted;
+    private volatile long updated;
+    private volatile long unchanged;
+    private final AtomicLong eventsQueued = new AtomicLong();
+
+    private final List<String> errors = new CopyOnWriteArrayList<>();
+
+    public CarImportReport(String format) {
+        this.format = format;
+    }
+
+    public void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    public void rowRejected(long line, String reason) {
+        rowsRejected.incrementAndGet();
+        if (errors.size() < MAX_ERRORS) {
+            errors.add("line " + line + ": " + reason);
+        }
+    }
+
+    public void merged(long inserted, long updated, long validRows) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.unchanged = validRows - inserted - updated;
+    }
+
+    public void eventsQueued(long count) {
+        eventsQueued.addAndGet(count);
+    }
+
+    public void phase(Phase phase) {
+        this.phase = phase;
+        if (phase == Phase.DONE || phase == Phase.FAILED) {
+            durationMs = elapsedMs();
+        }
+    }
+
+    public void failed(String reason) {
+        errors.add(reason);
+        phase(Phase.FAILED);
+    }
+
+    private long elapsedMs() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // GETTERS - serialized as JSON
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public String getImportId() {
+        return importId;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public long getDurationMs() {
+        return phase == Phase.DONE || phase == Phase.FAILED ? durationMs : elapsedMs();
+    }
+
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected.get();
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public long getUnchanged() {
+        return unchanged;
+    }
+
+    public long getEventsQueued() {
+        return eventsQueued.get();
+    }
+
+    /**
+     * Throughput of the read phase so far (rows read / elapsed time)
+     */
+    public double getRowsPerSecond() {
+        long elapsed = Math.max(getDurationMs(), 1);
+        return rowsRead.get() * 1000.0 / elapsed;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,170 @@
+package de.bennycar.dto;
+
+import de.bennycar.enums.BodyType;
+import de.bennycar.enums.CarCondition;
+import de.bennycar.enums.FuelType;
+import de.bennycar.enums.TransmissionType;
+
+/**
+ * ═══════════════════════════════════════════════════════════════════════════
+ * CAR PATCH - Body of PATCH /api/cars/{id}
+ * ═══════════════════════════════════════════════════════════════════════════
+ *
+ * Every field is optional; null means "leave the column as it is". Unlike the
+ * Car entity there are no defaults (Car starts with isAvailable = true, which
+ * would turn every patch into "make available").
+ *
+ * id, createdAt, updatedAt and version are not writable and are ignored.
+ *
+ * Example: { "price": 18990.0, "mileage": 42000 }
+ *
+ * ═══════════════════════════════════════════════════════════════════════════
+ */
+public class CarPatch {
+
+    private String name;
+    private String vin;
+    private String brand;
+    private String model;
+    private Integer year;
+    private String color;
+    private TransmissionType transmission;
+    private FuelType fuelType;
+    private BodyType bodyType;
+    private Integer mileage;
+    private Double price;
+    private String description;
+    private CarCondition condition;
+    private String location;
+    private Boolean isAvailable;
+
+    /**
+     * @return true if no field was supplied - the patch would change nothing
+     */
+    public boolean isEmpty() {
+        return name == null && vin == null && brand == null && model == null && year == null
+                && color == null && transmission == null && fuelType == null && bodyType == null
+                && mileage == null && price == null && description == null && condition == null
+                && location == null && isAvailable == null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getVin() {
+        return vin;
+    }
+
+    public void setVin(String vin) {
+        this.vin = vin;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public void setBrand(String brand) {
+        this.brand = brand;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public Integer getYear() {
+        return year;
+    }
+
+    public void setYear(Integer year) {
+        this.year = year;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public void setColor(String color) {
+        this.color = color;
+    }
+
+    public TransmissionType getTransmission() {
+        return transmission;
+    }
+
+    public void setTransmission(TransmissionType transmission) {
+        this.transmission = transmission;
+    }
+
+    public FuelType getFuelType() {
+        return fuelType;
+    }
+
+    public void setFuelType(FuelType fuelType) {
+        this.fuelType = fuelType;
+    }
+
+    public BodyType getBodyType() {
+        return bodyType;
+    }
+
+    public void setBodyType(BodyType bodyType) {
+        this.bodyType = bodyType;
+    }
+
+    public Integer getMileage() {
+        return mileage;
+    }
+
+    public void setMileage(Integer mileage) {
+        this.mileage = mileage;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public CarCondition getCondition() {
+        return condition;
+    }
+
+    public void setCondition(CarCondition condition) {
+        this.condition = condition;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public Boolean getIsAvailable() {
+        return isAvailable;
+    }
+
+    public void setIsAvailable(Boolean isAvailable) {
+        this.isAvailable = isAvailable;
+    }
+}
@@ -0,0 +1,38 @@
+package de.bennycar.dto;
+
+import de.bennycar.model.Car;
+
+/**
+ * Result of a single-statement PATCH: the row after the update plus the
+ * pre-image of the columns that drive events and cache keys
+ */
+public class CarPatchResult {
+
+    private final Car car;
+    private final String oldVin;
+    private final Double oldPrice;
+    private final Boolean oldAvailable;
+
+    public CarPatchResult(Car car, String oldVin, Double oldPrice, Boolean oldAvailable) {
+        this.car = car;
+        this.oldVin = oldVin;
+        this.oldPrice = oldPrice;
+        this.oldAvailable = oldAvailable;
+    }
+
+    public Car getCar() {
+        return car;
+    }
+
+    public String getOldVin() {
+        return oldVin;
+    }
+
+    public Double getOldPrice() {
+        return oldPrice;
+    }
+
+    public Boolean getOldAvailable() {
+        return oldAvailable;
+    }
+}
@@ -0,0 +1,54 @@
+package de.bennycar.dto;
+
+/**
+ * One row changed by a bulk repricing: what a price CHANGED event needs, nothing more
+ */
+public class CarPriceChange {
+
+    private final Long id;
+    private final String vin;
+    private final String brand;
+    private final String model;
+    private final Double oldPrice;
+    private final Double newPrice;
+    private final Boolean isAvailable;
+
+    public CarPriceChange(Long id, String vin, String brand, String model,
+                          Double oldPrice, Double newPrice, Boolean isAvailable) {
+        this.id = id;
+        this.vin = vin;
+        this.brand = brand;
+        this.model = model;
+        this.oldPrice = oldPrice;
+        this.newPrice = newPrice;
+        this.isAvailable = isAvailable;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getVin() {
+        return vin;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public Double getOldPrice() {
+        return oldPrice;
+    }
+
+    public Double getNewPrice() {
+        return newPrice;
+    }
+
+    public Boolean getIsAvailable() {
+        return isAvailable;
+    }
+}
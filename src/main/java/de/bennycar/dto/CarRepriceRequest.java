@@ -0,0 +1,101 @@
+package de.bennycar.dto;
+
+import de.bennycar.enums.CarCondition;
+
+/**
+ * ═══════════════════════════════════════════════════════════════════════════
+ * CAR REPRICE REQUEST - Body of POST /api/cars/reprice
+ * ═══════════════════════════════════════════════════════════════════════════
+ *
+ * Filters (at least one, all given filters must match):
+ *   brand, model, minYear, maxYear, condition, available
+ *
+ * Adjustment (exactly one):
+ *   percent: +5 raises by 5%, -10 lowers by 10%
+ *   amount:  absolute change, e.g. -500
+ *
+ * Example: { "brand": "BMW", "minYear": 2020, "percent": -3.5 }
+ *
+ * ═══════════════════════════════════════════════════════════════════════════
+ */
+public class CarRepriceRequest {
+
+    private String brand;
+    private String model;
+    private Integer minYear;
+    private Integer maxYear;
+    private CarCondition condition;
+    private Boolean available;
+
+    private Double percent;
+    private Double amount;
+
+    public boolean hasFilter() {
+        return brand != null || model != null || minYear != null || maxYear != null
+                || condition != null || available != null;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public void setBrand(String brand) {
+        this.brand = brand;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public Integer getMinYear() {
+        return minYear;
+    }
+
+    public void setMinYear(Integer minYear) {
+        this.minYear = minYear;
+    }
+
+    public Integer getMaxYear() {
+        return maxYear;
+    }
+
+    public void setMaxYear(Integer maxYear) {
+        this.maxYear = maxYear;
+    }
+
+    public CarCondition getCondition() {
+        return condition;
+    }
+
+    public void setCondition(CarCondition condition) {
+        this.condition = condition;
+    }
+
+    public Boolean getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(Boolean available) {
+        this.available = available;
+    }
+
+    public Double getPercent() {
+        return percent;
+    }
+
+    public void setPercent(Double percent) {
+        this.percent = percent;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
+}
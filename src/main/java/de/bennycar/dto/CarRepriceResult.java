@@ -0,0 +1,29 @@
+package de.bennycar.dto;
+
+/**
+ * Response of POST /api/cars/reprice
+ */
+public class CarRepriceResult {
+
+    private final long updated;
+    private final long eventsQueued;
+    private final long durationMs;
+
+    public CarRepriceResult(long updated, long eventsQueued, long durationMs) {
+        this.updated = updated;
+        this.eventsQueued = eventsQueued;
+        this.durationMs = durationMs;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public long getEventsQueued() {
+        return eventsQueued;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+}
@@ -0,0 +1,145 @@
+package de.bennycar.dto;
+
+import de.bennycar.enums.BodyType;
+import de.bennycar.enums.CarCondition;
+import de.bennycar.enums.FuelType;
+import de.bennycar.enums.TransmissionType;
+
+/**
+ * ═══════════════════════════════════════════════════════════════════════════
+ * CAR SEARCH CRITERIA
+ * ═══════════════════════════════════════════════════════════════════════════
+ *
+ * Purpose: All optional filters of GET /api/cars/search, bound from query parameters
+ *
+ * Every non-null field becomes one predicate; all predicates are AND-ed into a
+ * single SQL query (see CarSpecifications). Null = "don't filter on this".
+ *
+ * Example:
+ *   /api/cars/search?brand=BMW&minYear=2020&maxPrice=50000&fuelType=HYBRID&available=true
+ *
+ * ═══════════════════════════════════════════════════════════════════════════
+ */
+public class CarSearchCriteria {
+
+    private String brand;
+    private String model;
+    private Integer minYear;
+    private Integer maxYear;
+    private Double minPrice;
+    private Double maxPrice;
+    private Integer maxMileage;
+    private FuelType fuelType;
+    private BodyType bodyType;
+    private TransmissionType transmission;
+    private CarCondition condition;
+
+    /** Case-insensitive prefix match, e.g. "munich" matches "Munich, Germany" */
+    private String location;
+
+    private Boolean available;
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public void setBrand(String brand) {
+        this.brand = brand;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public Integer getMinYear() {
+        return minYear;
+    }
+
+    public void setMinYear(Integer minYear) {
+        this.minYear = minYear;
+    }
+
+    public Integer getMaxYear() {
+        return maxYear;
+    }
+
+    public void setMaxYear(Integer maxYear) {
+        this.maxYear = maxYear;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public Integer getMaxMileage() {
+        return maxMileage;
+    }
+
+    public void setMaxMileage(Integer maxMileage) {
+        this.maxMileage = maxMileage;
+    }
+
+    public FuelType getFuelType() {
+        return fuelType;
+    }
+
+    public void setFuelType(FuelType fuelType) {
+        this.fuelType = fuelType;
+    }
+
+    public BodyType getBodyType() {
+        return bodyType;
+    }
+
+    public void setBodyType(BodyType bodyType) {
+        this.bodyType = bodyType;
+    }
+
+    public TransmissionType getTransmission() {
+        return transmission;
+    }
+
+    public void setTransmission(TransmissionType transmission) {
+        this.transmission = transmission;
+    }
+
+    public CarCondition getCondition() {
+        return condition;
+    }
+
+    public void setCondition(CarCondition condition) {
+        this.condition = condition;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public Boolean getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(Boolean available) {
+        this.available = available;
+    }
+}
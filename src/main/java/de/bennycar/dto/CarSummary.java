@@ -0,0 +1,62 @@
+package de.bennycar.dto;
+
+import de.bennycar.enums.BodyType;
+import de.bennycar.enums.CarCondition;
+import de.bennycar.enums.FuelType;
+import de.bennycar.enums.TransmissionType;
+import de.bennycar.model.Versioned;
+
+import java.time.LocalDateTime;
+
+/**
+ * ═══════════════════════════════════════════════════════════════════════════
+ * CAR SUMMARY - List projection (what a car card needs)
+ * ═══════════════════════════════════════════════════════════════════════════
+ *
+ * Spring Data selects ONLY these columns when a finder is called with
+ * CarSummary.class - the 500 character description and createdAt are never read
+ * from the database nor serialized.
+ *
+ * List endpoints return this shape by default; GET /api/cars/{id} still returns the full Car.
+ *
+ * ═══════════════════════════════════════════════════════════════════════════
+ */
+public interface CarSummary extends Versioned {
+
+    @Override
+    Long getId();
+
+    String getName();
+
+    String getVin();
+
+    String getBrand();
+
+    String getModel();
+
+    Integer getYear();
+
+    String getColor();
+
+    TransmissionType getTransmission();
+
+    FuelType getFuelType();
+
+    BodyType getBodyType();
+
+    Integer getMileage();
+
+    Double getPrice();
+
+    CarCondition getCondition();
+
+    String getLocation();
+
+    Boolean getIsAvailable();
+
+    @Override
+    Long getVersion();
+
+    @Override
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,23 @@
+package de.bennycar.dto;
+
+import de.bennycar.model.Versioned;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version-only projection of a car: SELECT id, version, updated_at - nothing else.
+ *
+ * Used to answer conditional GETs (If-None-Match / If-Modified-Since) without
+ * loading or serializing the full entity.
+ */
+public interface CarVersion extends Versioned {
+
+    @Override
+    Long getId();
+
+    @Override
+    Long getVersion();
+
+    @Override
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,112 @@
+package de.bennycar.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * ═══════════════════════════════════════════════════════════════════════════
+ * CURSOR PAGE DTO
+ * ═══════════════════════════════════════════════════════════════════════════
+ *
+ * Purpose: One bounded slice of a list endpoint plus an opaque token for the next slice
+ *
+ * Why keyset (cursor) pagination instead of OFFSET?
+ * 1. CONSTANT COST: "WHERE id > :lastId ORDER BY id LIMIT n" uses the primary key
+ *    index, page 10.000 is as cheap as page 1
+ * 2. BOUNDED MEMORY: never more than MAX_PAGE_SIZE rows in the heap per request
+ * 3. STABLE: inserts/deletes between requests don't shift or duplicate rows
+ *
+ * Response shape:
+ *   { "data": [...], "nextCursor": "aWQ6NDI", "size": 50 }
+ *   nextCursor is null on the last page
+ *
+ * ═══════════════════════════════════════════════════════════════════════════
+ */
+public class CursorPage<T> {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private static final String CURSOR_PREFIX = "id:";
+
+    private final List<T> data;
+    private final String nextCursor;
+    private final int size;
+
+    public CursorPage(List<T> data, String nextCursor, int size) {
+        this.data = data;
+        this.nextCursor = nextCursor;
+        this.size = size;
+    }
+
+    /**
+     * Build a page from a result that was fetched with limit = size + 1
+     * The extra row only tells us whether another page exists, it is never returned
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int size, Function<T, Long> idOf) {
+        if (fetched.size() <= size) {
+            return new CursorPage<>(fetched, null, size);
+        }
+        List<T> page = fetched.subList(0, size);
+        return new CursorPage<>(page, encodeCursor(idOf.apply(page.get(size - 1))), size);
+    }
+
+    /**
+     * Clamp the requested page size into [1, MAX_PAGE_SIZE]
+     */
+    public static int normalizeSize(Integer requested) {
+        if (requested == null || requested < 1) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(requested, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Cursor = Base64URL("id:" + lastId) - opaque for clients, so the key can change later
+     */
+    public static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return last seen id, or 0 when no cursor was given (first page)
+     * @throws IllegalArgumentException if the token was not issued by us
+     */
+    public static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException is an IllegalArgumentException too
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    public List<T> getData() {
+        return data;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return data.isEmpty();
+    }
+}
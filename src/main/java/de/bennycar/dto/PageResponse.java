@@ -0,0 +1,48 @@
+package de.bennycar.dto;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Stable JSON shape for offset-paginated results (Spring's PageImpl is not meant to be serialized as-is)
+ *
+ * Response shape:
+ *   { "data": [...], "page": 0, "size": 20, "totalElements": 125, "totalPages": 7 }
+ */
+public class PageResponse<T> {
+
+    private final List<T> data;
+    private final int page;
+    private final int size;
+    private final long totalElements;
+    private final int totalPages;
+
+    public PageResponse(Page<T> page) {
+        this.data = page.getContent();
+        this.page = page.getNumber();
+        this.size = page.getSize();
+        this.totalElements = page.getTotalElements();
+        this.totalPages = page.getTotalPages();
+    }
+
+    public List<T> getData() {
+        return data;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public int getTotalPages() {
+        return totalPages;
+    }
+}
@@ -0,0 +1,55 @@
+package de.bennycar.messaging;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.batch.SimpleBatchingStrategy;
+
+import java.util.function.Consumer;
+
+/**
+ * ═══════════════════════════════════════════════════════════════════════════
+ * CAR EVENT BATCHING STRATEGY - Many events per AMQP message
+ * ═══════════════════════════════════════════════════════════════════════════
+ *
+ * Producer side (CarEventOutboxRelay, BatchingRabbitTemplate): messages for the
+ * SAME exchange and routing key are buffered and sent as one AMQP message once
+ *   - batch-size messages are buffered, or
+ *   - the next one would exceed buffer-limit bytes, or
+ *   - linger has passed since the first buffered message (template only).
+ * A batch has one destination; the relay releases it when the next row has another.
+ *
+ * Consumer side (every listener container): a batch is split back into its
+ * messages before the @RabbitListener method sees them - listeners do not
+ * change. All fragments of a batch share ONE delivery tag, so they are marked
+ * with BATCH_FRAGMENT_HEADER and CarEventConsumer acks or rejects the delivery
+ * once, on the last fragment (settlesDelivery).
+ *
+ * Config (bennycar.events.batching.*): size, buffer-limit, linger
+ *
+ * ═══════════════════════════════════════════════════════════════════════════
+ */
+public class CarEventBatchingStrategy extends SimpleBatchingStrategy {
+
+    /** Set on every message that was de-batched from a batch delivery */
+    public static final String BATCH_FRAGMENT_HEADER = "x-car-batch-fragment";
+
+    public CarEventBatchingStrategy(int batchSize, int bufferLimit, long lingerMillis) {
+        super(batchSize, bufferLimit, lingerMillis);
+    }
+
+    @Override
+    public void deBatch(Message message, Consumer<Message> fragmentConsumer) {
+        // The fragments copy these properties
+        message.getMessageProperties().setHeader(BATCH_FRAGMENT_HEADER, true);
+        super.deBatch(message, fragmentConsumer);
+    }
+
+    /**
+     * Is this the message whose ack/nack settles the delivery?
+     * True for unbatched messages and for the last fragment of a batch.
+     */
+    public static boolean settlesDelivery(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        return properties.getHeader(BATCH_FRAGMENT_HEADER) == null || properties.isLastInBatch();
+    }
+}
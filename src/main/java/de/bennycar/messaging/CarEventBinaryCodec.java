@@ -0,0 +1,285 @@
+package de.bennycar.messaging;
+
+import de.bennycar.dto.CarEventMessage;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * ═══════════════════════════════════════════════════════════════════════════
+ * CAR EVENT BINARY CODEC - Compact wire format for CarEventMessage
+ * ═══════════════════════════════════════════════════════════════════════════
+ *
+ * Layout (content type application/x-car-event):
+ *
+ *   byte     format version (1)
+ *   field*   key = varint (fieldNumber << 3 | wireType), then the value
+ *
+ *   wire types: 0 = varint, 1 = 8 bytes little-endian, 2 = varint length + bytes
+ *
+ *   #   field           wire   encoding
+ *   1   eventType       0      ordinal in EVENT_TYPES
+ *   2   eventType name  2      UTF-8, only for types not in EVENT_TYPES
+ *   3   carId           0      zigzag varint
+ *   4   vin             2      UTF-8
+ *   5   brand           2      UTF-8
+ *   6   model           2      UTF-8
+ *   7   price           1      IEEE 754 double
+ *   8   oldPrice        1      IEEE 754 double
+ *   9   isAvailable     0      0 / 1
+ *   10  timestamp       0      zigzag varint, epoch millis (LocalDateTime read as UTC)
+ *   11  message         2      UTF-8
+ *   12  changes         0      CHANGED_* bitmask
+ *   13  eventId         2      UTF-8
+ *
+ * Null fields are simply absent. SCHEMA EVOLUTION: new fields get new numbers
+ * and old decoders skip fields they do not know (the wire type tells them how
+ * many bytes to skip); a field number is never reused. EVENT_TYPES may only be
+ * appended to. The version byte is for incompatible layout changes.
+ *
+ * Timestamps lose sub-millisecond precision.
+ *
+ * ═══════════════════════════════════════════════════════════════════════════
+ */
+public final class CarEventBinaryCodec {
+
+    public static final String CONTENT_TYPE = "application/x-car-event";
+
+    static final int VERSION = 1;
+
+    /** Append only - the index is the wire value */
+    static final String[] EVENT_TYPES = {
+            "CREATED", "UPDATED", "DELETED", "PRICE_CHANGED", "AVAILABILITY_CHANGED", CarEventMessage.CHANGED
+    };
+
+    private static final int VARINT = 0;
+    private static final int FIXED64 = 1;
+    private static final int LENGTH_DELIMITED = 2;
+
+    private static final int EVENT_TYPE = 1;
+    private static final int EVENT_TYPE_NAME = 2;
+    private static final int CAR_ID = 3;
+    private static final int VIN = 4;
+    private static final int BRAND = 5;
+    private static final int MODEL = 6;
+    private static final int PRICE = 7;
+    private static final int OLD_PRICE = 8;
+    private static final int IS_AVAILABLE = 9;
+    private static final int TIMESTAMP = 10;
+    private static final int MESSAGE = 11;
+    private static final int CHANGES = 12;
+    private static final int EVENT_ID = 13;
+
+    private CarEventBinaryCodec() {
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // ENCODE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public static byte[] encode(CarEventMessage event) {
+        Writer out = new Writer();
+        out.write(VERSION);
+
+        if (event.getEventType() != null) {
+            int ordinal = ordinalOf(event.getEventType());
+            if (ordinal >= 0) {
+                out.varintField(EVENT_TYPE, ordinal);
+            } else {
+                out.stringField(EVENT_TYPE_NAME, event.getEventType());
+            }
+        }
+        if (event.getCarId() != null) {
+            out.varintField(CAR_ID, zigzag(event.getCarId()));
+        }
+        out.stringField(VIN, event.getVin());
+        out.stringField(BRAND, event.getBrand());
+        out.stringField(MODEL, event.getModel());
+        out.doubleField(PRICE, event.getPrice());
+        out.doubleField(OLD_PRICE, event.getOldPrice());
+        if (event.getIsAvailable() != null) {
+            out.varintField(IS_AVAILABLE, event.getIsAvailable() ? 1 : 0);
+        }
+        if (event.getTimestamp() != null) {
+            out.varintField(TIMESTAMP, zigzag(event.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli()));
+        }
+        out.stringField(MESSAGE, event.getMessage());
+        if (event.getChanges() != null) {
+            out.varintField(CHANGES, event.getChanges());
+        }
+        out.stringField(EVENT_ID, event.getEventId());
+        return out.toByteArray();
+    }
+
+    private static int ordinalOf(String eventType) {
+        for (int i = 0; i < EVENT_TYPES.length; i++) {
+            if (EVENT_TYPES[i].equals(eventType)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Unsynchronized growable buffer (ByteArrayOutputStream locks on every byte) */
+    private static final class Writer {
+
+        private byte[] buffer = new byte[128];
+        private int size;
+
+        void varintField(int field, long value) {
+            varint((long) field << 3 | VARINT);
+            varint(value);
+        }
+
+        void doubleField(int field, Double value) {
+            if (value == null) {
+                return;
+            }
+            varint((long) field << 3 | FIXED64);
+            long bits = Double.doubleToRawLongBits(value);
+            ensureCapacity(8);
+            for (int i = 0; i < 8; i++) {
+                buffer[size++] = (byte) (bits >>> (8 * i));
+            }
+        }
+
+        void stringField(int field, String value) {
+            if (value == null) {
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varint((long) field << 3 | LENGTH_DELIMITED);
+            varint(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void varint(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void write(int b) {
+            ensureCapacity(1);
+            buffer[size++] = (byte) b;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // DECODE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * @throws IllegalArgumentException on an unknown version or truncated/corrupt input
+     */
+    public static CarEventMessage decode(byte[] body) {
+        ByteBuffer in = ByteBuffer.wrap(body);
+        try {
+            int version = in.get() & 0xFF;
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported car event format version " + version);
+            }
+
+            CarEventMessage event = new CarEventMessage();
+            event.setTimestamp(null);
+            while (in.hasRemaining()) {
+                long key = varint(in);
+                int field = (int) (key >>> 3);
+                int wireType = (int) (key & 0x7);
+                switch (field) {
+                    case EVENT_TYPE -> {
+                        int ordinal = (int) varint(in);
+                        event.setEventType(ordinal >= 0 && ordinal < EVENT_TYPES.length ? EVENT_TYPES[ordinal] : null);
+                    }
+                    case EVENT_TYPE_NAME -> event.setEventType(string(in));
+                    case CAR_ID -> event.setCarId(unzigzag(varint(in)));
+                    case VIN -> event.setVin(string(in));
+                    case BRAND -> event.setBrand(string(in));
+                    case MODEL -> event.setModel(string(in));
+                    case PRICE -> event.setPrice(fixedDouble(in));
+                    case OLD_PRICE -> event.setOldPrice(fixedDouble(in));
+                    case IS_AVAILABLE -> event.setIsAvailable(varint(in) != 0);
+                    case TIMESTAMP -> event.setTimestamp(LocalDateTime.ofInstant(
+                            Instant.ofEpochMilli(unzigzag(varint(in))), ZoneOffset.UTC));
+                    case MESSAGE -> event.setMessage(string(in));
+                    case CHANGES -> event.setChanges((int) varint(in));
+                    case EVENT_ID -> event.setEventId(string(in));
+                    default -> skip(in, wireType);     // field from a newer producer
+                }
+            }
+            return event;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated car event", e);
+        }
+    }
+
+    private static long varint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static String string(ByteBuffer in) {
+        int length = (int) varint(in);
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Bad string length " + length);
+        }
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static double fixedDouble(ByteBuffer in) {
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits |= (long) (in.get() & 0xFF) << (8 * i);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    private static void skip(ByteBuffer in, int wireType) {
+        switch (wireType) {
+            case VARINT -> varint(in);
+            case FIXED64 -> in.position(in.position() + 8);
+            case LENGTH_DELIMITED -> {
+                int length = (int) varint(in);
+                in.position(in.position() + length);
+            }
+            default -> throw new IllegalArgumentException("Unknown wire type " + wireType);
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -3,13 +3,34 @@ package de.bennycar.messaging;
 import com.rabbitmq.client.Channel;
 import de.bennycar.config.RabbitMQConfig;
 import de.bennycar.dto.CarEventMessage;
+import de.bennycar.service.AvailableCarsSnapshot;
+import de.bennycar.service.CarCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * ═══════════════════════════════════════════════════════════════════════════
@@ -23,12 +44,28 @@ import java.io.IOException;
  * 2. MANUAL ACKNOWLEDGEMENT - Control when message is removed from queue
  * 3. PREFETCH - How many messages to fetch at once
  * 4. CONCURRENCY - Multiple consumers processing in parallel
- * 5. ERROR HANDLING - Retry, reject, send to DLQ
+ * 5. ERROR HANDLING - Delayed retry tiers, then DLQ
  * 6. MESSAGE HEADERS - Access metadata like retry count, timestamp
  *
  * Consumer Flow:
  *   Queue → RabbitMQ delivers message → @RabbitListener method → Process → ACK/NACK
  *
+ * car.events.queue has three listeners, one started per bennycar.events.consumer.mode:
+ *   single - consumeCarEvent, one message and one ACK at a time
+ *   batch  - consumeCarEventBatch, up to batch-size messages processed in bulk
+ *            and settled with one multiple=true ACK (default)
+ *   lanes  - consumeCarEventInLane, events of the same car processed in order,
+ *            different cars in parallel (CarEventLanes)
+ *
+ * All three skip events whose eventId was already processed (CarEventDeduplicator):
+ * a duplicate is ACKed without being processed again. The dedupe window belongs
+ * to this instance's car.events.queue listeners.
+ *
+ * Metrics: car.events.consumed, car.events.consume.failed, car.events.consume.batch.size
+ *
+ * The concurrency in the annotations is where a listener starts; listeners listed in
+ * bennycar.events.autoscale.listeners are resized at runtime (CarEventListenerAutoscaler).
+ *
  * ═══════════════════════════════════════════════════════════════════════════
  */
 @Service
@@ -36,6 +73,54 @@ public class CarEventConsumer {
 
     private static final Logger log = LoggerFactory.getLogger(CarEventConsumer.class);
 
+    /** SpEL for @RabbitListener(autoStartup): which car.events.queue listener runs */
+    private static final String CONSUMER_MODE = "'${bennycar.events.consumer.mode:batch}'";
+
+    /** Why the message failed last, on copies sent to a retry tier or the DLQ */
+    public static final String EXCEPTION_HEADER = "x-exception";
+
+    private final CarCache carCache;
+    private final AvailableCarsSnapshot availableCarsSnapshot;
+    private final MessageConverter messageConverter;
+    private final CarEventRetryTiers retryTiers;
+    private final PublisherConfirmTracker confirmTracker;
+    private final Duration retryConfirmTimeout;
+    private final CarEventLanes lanes;
+    private final CarEventDeduplicator deduplicator;
+
+    private final Counter consumed;
+    private final Counter consumeFailed;
+    private final DistributionSummary batchSize;
+
+    public CarEventConsumer(CarCache carCache,
+                            AvailableCarsSnapshot availableCarsSnapshot,
+                            MessageConverter messageConverter,
+                            CarEventRetryTiers retryTiers,
+                            PublisherConfirmTracker confirmTracker,
+                            CarEventLanes lanes,
+                            CarEventDeduplicator deduplicator,
+                            MeterRegistry meterRegistry,
+                            @Value("${bennycar.events.consumer.mode:batch}") String mode,
+                            @Value("${bennycar.events.retry.confirm-timeout:5s}") Duration retryConfirmTimeout) {
+        if (!List.of("single", "batch", "lanes").contains(mode)) {
+            throw new IllegalArgumentException(
+                    "bennycar.events.consumer.mode must be 'single', 'batch' or 'lanes', was: " + mode);
+        }
+        this.carCache = carCache;
+        this.availableCarsSnapshot = availableCarsSnapshot;
+        this.messageConverter = messageConverter;
+        this.retryTiers = retryTiers;
+        this.confirmTracker = confirmTracker;
+        this.retryConfirmTimeout = retryConfirmTimeout;
+        this.lanes = lanes;
+        this.deduplicator = deduplicator;
+        this.consumed = meterRegistry.counter("car.events.consumed");
+        this.consumeFailed = meterRegistry.counter("car.events.consume.failed");
+        this.batchSize = DistributionSummary.builder("car.events.consume.batch.size")
+                .description("Messages per car.events.queue listener call")
+                .register(meterRegistry);
+    }
+
     // ═══════════════════════════════════════════════════════════════════════
     // CONCEPT 1: BASIC CONSUMER with @RabbitListener
     // ═══════════════════════════════════════════════════════════════════════
@@ -83,9 +168,11 @@ public class CarEventConsumer {
      *   6. ACK (success) or NACK (failure)
      */
     @RabbitListener(
+            id = "carEventConsumer",
             queues = RabbitMQConfig.CAR_EVENTS_QUEUE,
             concurrency = "3-10",
-            ackMode = "MANUAL"
+            ackMode = "MANUAL",
+            autoStartup = "#{" + CONSUMER_MODE + " == 'single'}"
     )
     public void consumeCarEvent(CarEventMessage carEvent,
                                Message message,
@@ -94,6 +181,14 @@ public class CarEventConsumer {
         long deliveryTag = message.getMessageProperties().getDeliveryTag();
 
         try {
+            // Already processed (same eventId)? ACK it and move on
+            if (deduplicator.isDuplicate(carEvent)) {
+                log.info("⏭️ Duplicate car event {} skipped", carEvent.getEventId());
+                settle(message, channel, null);
+                consumed.increment();
+                return;
+            }
+
             log.info("═══════════════════════════════════════════════════════");
             log.info("📥 RECEIVED MESSAGE from queue: {}", RabbitMQConfig.CAR_EVENTS_QUEUE);
             log.info("Event Type: {}", carEvent.getEventType());
@@ -116,6 +211,7 @@ public class CarEventConsumer {
             // - Generate reports
 
             processCarEvent(carEvent);
+            deduplicator.record(carEvent);
 
             // ═══════════════════════════════════════════════════════════════
             // CONCEPT 2: MANUAL ACKNOWLEDGEMENT (ACK)
@@ -139,32 +235,246 @@ public class CarEventConsumer {
              * - RabbitMQ won't delete it
              * - If consumer disconnects, message redelivered to another consumer
              */
-            channel.basicAck(deliveryTag, false);
+            settle(message, channel, null);
+            consumed.increment();
             log.info("✅ Message ACKNOWLEDGED and removed from queue");
 
         } catch (Exception e) {
             log.error("❌ Error processing message", e);
 
             // ═══════════════════════════════════════════════════════════════
-            // CONCEPT 3: ERROR HANDLING with NACK and REQUEUE
+            // CONCEPT 3: ERROR HANDLING with DELAYED RETRY
             // ═══════════════════════════════════════════════════════════════
             /**
-             * Decision tree for error handling:
+             * Decision tree for error handling (see reroute):
              *
              * 1. TEMPORARY ERROR (network timeout, database lock)
-             *    → NACK with requeue=true
-             *    → Message goes back to queue for retry
+             *    → Re-publish to the next retry tier, ACK the original
+             *    → Message comes back to this queue after the tier's delay
              *
              * 2. PERMANENT ERROR (invalid data, business rule violation)
-             *    → NACK with requeue=false
-             *    → Message sent to DLQ for manual inspection
+             *    → Re-publish to the DLX, ACK the original
+             *    → Message parked in DLQ for manual inspection
              *
-             * 3. RETRY LIMIT REACHED (tried 3 times already)
-             *    → NACK with requeue=false
-             *    → Send to DLQ, alert team
+             * 3. RETRY LIMIT REACHED (every tier used, counted from x-death)
+             *    → Park in DLQ, alert team
              */
 
-            handleError(message, channel, deliveryTag, e);
+            consumeFailed.increment();
+            settle(message, channel, e);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // CONCEPT 1b: BATCH CONSUMER with MULTIPLE ACK
+    // ═══════════════════════════════════════════════════════════════════════
+    /**
+     * Batch consumer for car.events.queue (bennycar.events.consumer.mode: batch)
+     *
+     * The carEventBatchListenerContainerFactory collects up to batch-size messages,
+     * or whatever arrived within batch-timeout, and calls this method once:
+     *
+     *   1. CONVERT + VALIDATE each message on its own - a bad one fails alone;
+     *      duplicates (already processed, or twice in this batch) are skipped
+     *   2. PROCESS all good events in bulk (one round trip instead of one per event);
+     *      if the bulk step fails, fall back to one by one to find the culprit
+     *   3. SETTLE: each failed message goes to its retry tier or the DLQ on its
+     *      own (reroute); then basicAck(highest tag, multiple=true) acks every
+     *      delivery of the batch at once
+     *
+     * A delivery whose failed message could not be re-published is rejected
+     * individually BEFORE that ack - multiple=true acks EVERY unsettled tag up to
+     * the given one on this channel.
+     *
+     * Messages from a producer batch (CarEventBatchingStrategy) share one delivery
+     * tag; since failures are re-published one by one, the good messages of such
+     * a delivery are not processed again.
+     *
+     * @param messages - raw messages in delivery order, converted here so that one
+     *                   unreadable message does not fail the whole listener call
+     */
+    @RabbitListener(
+            id = "carEventBatchConsumer",
+            queues = RabbitMQConfig.CAR_EVENTS_QUEUE,
+            containerFactory = "carEventBatchListenerContainerFactory",
+            concurrency = "3-10",
+            ackMode = "MANUAL",
+            autoStartup = "#{" + CONSUMER_MODE + " == 'batch'}"
+    )
+    public void consumeCarEventBatch(List<Message> messages, Channel channel) throws IOException {
+        batchSize.record(messages.size());
+
+        Exception[] failures = new Exception[messages.size()];
+        List<CarEventMessage> events = new ArrayList<>(messages.size());
+        List<Integer> eventIndexes = new ArrayList<>(messages.size());
+        Set<String> batchEventIds = new HashSet<>();
+        int duplicates = 0;
+
+        for (int i = 0; i < messages.size(); i++) {
+            try {
+                if (!(messageConverter.fromMessage(messages.get(i)) instanceof CarEventMessage carEvent)) {
+                    throw new MessageConversionException("Not a car event");
+                }
+                validateCarEvent(carEvent);
+                if (deduplicator.isDuplicate(carEvent)
+                        || (carEvent.getEventId() != null && !batchEventIds.add(carEvent.getEventId()))) {
+                    duplicates++;
+                    continue;
+                }
+                events.add(carEvent);
+                eventIndexes.add(i);
+            } catch (RuntimeException e) {
+                failures[i] = e;
+            }
+        }
+
+        try {
+            processCarEvents(events);
+            events.forEach(deduplicator::record);
+        } catch (Exception e) {
+            log.warn("Bulk processing of {} car events failed, processing one by one", events.size(), e);
+            for (int i = 0; i < events.size(); i++) {
+                try {
+                    processCarEvent(events.get(i));
+                    deduplicator.record(events.get(i));
+                } catch (Exception single) {
+                    failures[eventIndexes.get(i)] = single;
+                }
+            }
+        }
+
+        int failedMessages = settleBatch(messages, failures, channel);
+        consumed.increment(messages.size() - failedMessages);
+        consumeFailed.increment(failedMessages);
+        log.info("✅ Batch of {} messages processed, {} failed, {} duplicates skipped",
+                messages.size(), failedMessages, duplicates);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // CONCEPT 1c: ORDERED PARALLEL CONSUMER - one lane per car
+    // ═══════════════════════════════════════════════════════════════════════
+    /**
+     * Lane consumer for car.events.queue (bennycar.events.consumer.mode: lanes)
+     *
+     * concurrency = "1": ONE thread receives, so events are handed to the lanes in
+     * queue order. Processing happens on the car's lane (CarEventLanes), so two
+     * events of the same car never overtake each other, while other cars run in
+     * parallel. A full lane blocks this thread - the listener pauses until it drains.
+     *
+     * Lane threads ACK each delivery once all its messages are done - in any order
+     * across lanes, so never with multiple=true. A failed event is rerouted to its
+     * retry tier like everywhere else; note that it is then processed AFTER later
+     * events of the same car.
+     *
+     * The duplicate check runs on the lane: copies of an event carry the same car
+     * id, so they queue up behind the first copy and find it already recorded.
+     *
+     * The container factory's prefetch (lanes × queue-capacity) keeps enough
+     * unacked messages in flight to feed every lane.
+     */
+    @RabbitListener(
+            id = "carEventLaneConsumer",
+            queues = RabbitMQConfig.CAR_EVENTS_QUEUE,
+            containerFactory = "carEventLaneListenerContainerFactory",
+            concurrency = "1",
+            ackMode = "MANUAL",
+            autoStartup = "#{" + CONSUMER_MODE + " == 'lanes'}"
+    )
+    public void consumeCarEventInLane(Message message, Channel channel) {
+        LaneDelivery delivery = laneDelivery.get();
+        long deliveryTag = message.getMessageProperties().getDeliveryTag();
+        if (delivery == null || delivery.deliveryTag != deliveryTag) {
+            delivery = new LaneDelivery(deliveryTag, channel);
+            laneDelivery.set(delivery);
+        }
+        delivery.add();
+
+        CarEventMessage carEvent = null;
+        try {
+            if (!(messageConverter.fromMessage(message) instanceof CarEventMessage converted)) {
+                throw new MessageConversionException("Not a car event");
+            }
+            validateCarEvent(converted);
+            carEvent = converted;
+        } catch (RuntimeException e) {
+            consumeFailed.increment();
+            delivery.done(reroute(message, e));
+        }
+
+        if (carEvent != null) {
+            CarEventMessage event = carEvent;
+            LaneDelivery owner = delivery;
+            try {
+                lanes.execute(event.getCarId(), () -> processInLane(event, message, owner));
+            } catch (RejectedExecutionException e) {
+                // Shutting down: leave the delivery unacked, the broker redelivers it
+                log.warn("Car event lane unavailable, delivery {} left for redelivery", deliveryTag);
+                laneDelivery.remove();
+                return;
+            }
+        }
+
+        if (CarEventBatchingStrategy.settlesDelivery(message)) {
+            laneDelivery.remove();
+            delivery.done(true);
+        }
+    }
+
+    private void processInLane(CarEventMessage carEvent, Message message, LaneDelivery delivery) {
+        boolean handled = true;
+        try {
+            if (!deduplicator.isDuplicate(carEvent)) {
+                processCarEvent(carEvent);
+                deduplicator.record(carEvent);
+            }
+            consumed.increment();
+        } catch (Exception e) {
+            log.error("❌ Error processing car event for car ID={}", carEvent.getCarId(), e);
+            consumeFailed.increment();
+            handled = reroute(message, e);
+        }
+        delivery.done(handled);
+    }
+
+    /** Delivery the receiving thread is handing to the lanes (fragments of a batch share it) */
+    private final ThreadLocal<LaneDelivery> laneDelivery = new ThreadLocal<>();
+
+    /**
+     * One delivery spread over the lanes: ACKed (or rejected) by whichever thread
+     * finishes its last message. pending starts at 1 for the receiving thread,
+     * which gives it up after the delivery's last message was handed out.
+     */
+    private static final class LaneDelivery {
+
+        private final long deliveryTag;
+        private final Channel channel;
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private volatile boolean unrouted;
+
+        LaneDelivery(long deliveryTag, Channel channel) {
+            this.deliveryTag = deliveryTag;
+            this.channel = channel;
+        }
+
+        void add() {
+            pending.incrementAndGet();
+        }
+
+        void done(boolean rerouted) {
+            if (!rerouted) {
+                unrouted = true;
+            }
+            if (pending.decrementAndGet() == 0) {
+                try {
+                    if (unrouted) {
+                        channel.basicNack(deliveryTag, false, false);
+                    } else {
+                        channel.basicAck(deliveryTag, false);
+                    }
+                } catch (IOException e) {
+                    log.warn("Could not settle delivery {} - the broker redelivers it", deliveryTag, e);
+                }
+            }
         }
     }
 
@@ -186,6 +496,7 @@ public class CarEventConsumer {
      * - Don't want to overwhelm notification service
      */
     @RabbitListener(
+            id = "priceAlertConsumer",
             queues = RabbitMQConfig.CAR_PRICE_ALERT_QUEUE,
             concurrency = "1-3",
             ackMode = "MANUAL"
@@ -194,8 +505,6 @@ public class CarEventConsumer {
                                  Message message,
                                  Channel channel) throws IOException {
 
-        long deliveryTag = message.getMessageProperties().getDeliveryTag();
-
         try {
             log.info("═══════════════════════════════════════════════════════");
             log.info("💰 PRICE ALERT RECEIVED");
@@ -219,12 +528,12 @@ public class CarEventConsumer {
             // Example: Trigger dynamic pricing algorithm
             processPriceAlert(carEvent);
 
-            channel.basicAck(deliveryTag, false);
+            settle(message, channel, null);
             log.info("✅ Price alert processed and acknowledged");
 
         } catch (Exception e) {
             log.error("❌ Error processing price alert", e);
-            handleError(message, channel, deliveryTag, e);
+            settle(message, channel, e);
         }
     }
 
@@ -238,6 +547,7 @@ public class CarEventConsumer {
      * - Trigger restocking if needed
      */
     @RabbitListener(
+            id = "inventoryConsumer",
             queues = RabbitMQConfig.CAR_INVENTORY_QUEUE,
             concurrency = "2-5",
             ackMode = "MANUAL"
@@ -246,8 +556,6 @@ public class CarEventConsumer {
                                       Message message,
                                       Channel channel) throws IOException {
 
-        long deliveryTag = message.getMessageProperties().getDeliveryTag();
-
         try {
             log.info("═══════════════════════════════════════════════════════");
             log.info("📦 INVENTORY UPDATE RECEIVED");
@@ -262,12 +570,12 @@ public class CarEventConsumer {
             // Example: Update e-commerce availability
             processInventoryUpdate(carEvent);
 
-            channel.basicAck(deliveryTag, false);
+            settle(message, channel, null);
             log.info("✅ Inventory update processed and acknowledged");
 
         } catch (Exception e) {
             log.error("❌ Error processing inventory update", e);
-            handleError(message, channel, deliveryTag, e);
+            settle(message, channel, e);
         }
     }
 
@@ -281,7 +589,8 @@ public class CarEventConsumer {
      * 1. Consumer NACK with requeue=false
      * 2. Message TTL expired
      * 3. Queue max-length exceeded
-     * 4. Consumer threw exception after max retries
+     * 4. Consumer failed on it in every retry tier (or it was invalid) - parked
+     *    by reroute, with the last error in the x-exception header
      *
      * What to do with DLQ messages:
      * 1. LOG for debugging (what went wrong?)
@@ -303,8 +612,6 @@ public class CarEventConsumer {
                                       Message message,
                                       Channel channel) throws IOException {
 
-        long deliveryTag = message.getMessageProperties().getDeliveryTag();
-
         log.error("═══════════════════════════════════════════════════════");
         log.error("☠️ MESSAGE IN DEAD LETTER QUEUE");
         log.error("This message FAILED processing and requires attention!");
@@ -336,17 +643,142 @@ public class CarEventConsumer {
 
         try {
             // Always ACK messages from DLQ (don't want infinite loop)
-            channel.basicAck(deliveryTag, false);
+            settle(message, channel, null);
             log.error("⚠️ DLQ message acknowledged (removed from DLQ)");
         } catch (IOException e) {
             log.error("Failed to ACK DLQ message", e);
         }
     }
 
+    // ═══════════════════════════════════════════════════════════════════════
+    // CONCEPT 5b: BROADCAST CONSUMER - Cache invalidation
+    // ═══════════════════════════════════════════════════════════════════════
+    /**
+     * Cache Invalidation Consumer - Keeps this instance's CarCache and
+     * AvailableCarsSnapshot coherent
+     *
+     * Listens on this instance's own AnonymousQueue (SpEL resolves the generated name),
+     * so every instance sees every CREATED/UPDATED/DELETED event - unlike the
+     * competing consumers on car.events.queue.
+     *
+     * Eviction is idempotent and cheap, so failures are not retried:
+     * worst case the entry expires by TTL.
+     */
+    @RabbitListener(
+            queues = "#{carCacheInvalidationQueue.name}",
+            concurrency = "1",
+            ackMode = "MANUAL"
+    )
+    public void consumeCacheInvalidation(CarEventMessage carEvent,
+                                         Message message,
+                                         Channel channel) throws IOException {
+
+        try {
+            carCache.evict(carEvent.getCarId(), carEvent.getVin());
+            if (carEvent.getCarId() != null) {
+                if ("DELETED".equals(carEvent.getEventType())) {
+                    availableCarsSnapshot.remove(carEvent.getCarId());
+                } else {
+                    availableCarsSnapshot.refresh(carEvent.getCarId());
+                }
+            }
+            log.debug("Cache entry evicted for car ID={} ({})", carEvent.getCarId(), carEvent.getEventType());
+        } catch (Exception e) {
+            log.error("❌ Error evicting cache entry", e);
+        } finally {
+            settle(message, channel, null);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // SETTLEMENT - exactly one ACK/NACK per delivery, batched or not
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Batch delivery the current container thread is working through, with a fragment that could not be rerouted */
+    private final ThreadLocal<Long> unroutedDelivery = new ThreadLocal<>();
+
+    /**
+     * ACK the delivery this message came in - after rerouting it if it failed
+     *
+     * A failed message is re-published to its retry tier or the DLQ (reroute) and
+     * then counts as handled. Only if that re-publish is not confirmed is the
+     * delivery rejected (the queue's DLX, if it has one, parks it).
+     *
+     * A batch (CarEventBatchingStrategy) arrives as ONE delivery and is split into
+     * fragments that share its delivery tag - acking each would ack the tag twice and
+     * close the channel. So only the last fragment settles the delivery; the others
+     * just remember whether one of them could not be rerouted. A container thread
+     * handles all fragments of one delivery in a row, so a ThreadLocal is enough.
+     */
+    private void settle(Message message, Channel channel, Exception failure) throws IOException {
+        long deliveryTag = message.getMessageProperties().getDeliveryTag();
+        Long unrouted = unroutedDelivery.get();
+        boolean earlierUnrouted = unrouted != null && unrouted == deliveryTag;
+        boolean lastFragment = CarEventBatchingStrategy.settlesDelivery(message);
+        boolean rerouted = failure == null || reroute(message, failure);
+
+        if (!lastFragment) {
+            if (!rerouted) {
+                unroutedDelivery.set(deliveryTag);
+            }
+            return;
+        }
+
+        unroutedDelivery.remove();
+        if (rerouted && !earlierUnrouted) {
+            channel.basicAck(deliveryTag, false);
+        } else {
+            channel.basicNack(deliveryTag, false, false);
+        }
+    }
+
+    /**
+     * Settle a batch: reroute failures one by one, then ONE multiple=true ACK
+     *
+     * @return number of failed messages
+     */
+    private int settleBatch(List<Message> messages, Exception[] failures, Channel channel) throws IOException {
+        Set<Long> unrouted = new LinkedHashSet<>();
+        int failed = 0;
+        for (int i = 0; i < messages.size(); i++) {
+            if (failures[i] != null) {
+                failed++;
+                if (!reroute(messages.get(i), failures[i])) {
+                    unrouted.add(messages.get(i).getMessageProperties().getDeliveryTag());
+                }
+            }
+        }
+        for (long deliveryTag : unrouted) {
+            channel.basicNack(deliveryTag, false, false);
+        }
+
+        long highestAcked = -1;
+        for (Message message : messages) {
+            long deliveryTag = message.getMessageProperties().getDeliveryTag();
+            if (!unrouted.contains(deliveryTag)) {
+                highestAcked = Math.max(highestAcked, deliveryTag);
+            }
+        }
+        if (highestAcked >= 0) {
+            channel.basicAck(highestAcked, true);
+        }
+        return failed;
+    }
+
     // ═══════════════════════════════════════════════════════════════════════
     // PRIVATE HELPER METHODS - Business Logic
     // ═══════════════════════════════════════════════════════════════════════
 
+    /**
+     * Per-event checks of the batch and lane paths - an event that fails them is
+     * parked alone instead of failing the bulk step for its neighbours
+     */
+    private static void validateCarEvent(CarEventMessage event) {
+        if (event.getEventType() == null || event.getCarId() == null) {
+            throw new IllegalArgumentException("Car event without event type or car id: " + event);
+        }
+    }
+
     /**
      * Process general car events
      * This is where your business logic goes
@@ -369,6 +801,31 @@ public class CarEventConsumer {
         log.info("✓ Car event processed successfully");
     }
 
+    /**
+     * Process a batch of car events in bulk
+     *
+     * One round trip for the whole batch (e.g. one multi-row INSERT / UPDATE or
+     * one bulk index request) instead of processCarEvent's one per event.
+     */
+    private void processCarEvents(List<CarEventMessage> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        // Simulate ONE round trip for all events
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // TODO: Implement actual bulk logic
+        // Examples:
+        // - jdbcTemplate.batchUpdate(...) for all events
+        // - searchIndexService.indexCars(events);
+
+        log.debug("✓ {} car events processed in bulk", events.size());
+    }
+
     /**
      * Process price alert
      */
@@ -404,61 +861,68 @@ public class CarEventConsumer {
      *
      * Decision matrix:
      *
-     * | Error Type          | Action              | Why                          |
-     * |---------------------|---------------------|------------------------------|
-     * | Network timeout     | NACK + requeue      | Temporary, retry will work   |
-     * | Database lock       | NACK + requeue      | Temporary, wait and retry    |
-     * | Invalid data        | NACK + DLQ          | Permanent, needs manual fix  |
-     * | Business rule error | NACK + DLQ          | Permanent, needs code change |
-     * | Unknown error       | NACK + requeue (3x) | Try again, then give up      |
+     * | Error Type          | Action                         | Why                          |
+     * |---------------------|--------------------------------|------------------------------|
+     * | Unreadable message  | Park in DLQ                    | Permanent, needs manual fix  |
+     * | Invalid data        | Park in DLQ                    | Permanent, needs manual fix  |
+     * | Anything else       | Retry tier 1..n, then DLQ      | Maybe temporary, back off    |
+     *
+     * Never basicNack(requeue=true): the message would be back at the head of the
+     * queue at once, and a poison message would spin broker and consumer forever.
+     * Instead it waits in a TTL queue (CarEventRetryTiers) that dead-letters it back
+     * to the queue it failed on; each tier is longer than the one before.
+     *
+     * The copy is published with a publisher confirm BEFORE the original is acked:
+     * a crash in between means a duplicate, never a lost message.
+     *
+     * The copy gets properties of its own: fragments of a batch delivery share the
+     * received MessageProperties (SimpleBatchingStrategy.deBatch), and the other
+     * fragments still need BATCH_FRAGMENT_HEADER to settle the delivery only once.
+     *
+     * @return true once the broker confirmed the copy - the original may be acked;
+     *         false if it did not, the caller rejects the delivery instead
      */
-    private void handleError(Message message, Channel channel, long deliveryTag, Exception e)
-            throws IOException {
-
-        // Get retry count from message headers
-        Integer retryCount = (Integer) message.getMessageProperties().getHeaders()
-                .getOrDefault("x-retry-count", 0);
-
-        final int MAX_RETRIES = 3;
-
-        if (retryCount < MAX_RETRIES) {
+    private boolean reroute(Message message, Exception e) {
+        MessageProperties properties = message.getMessageProperties();
+        int attempts = retryTiers.attemptsMade(message);
+        boolean permanent = e instanceof MessageConversionException || e instanceof IllegalArgumentException;
+
+        // A fragment of a batch delivery travels on as a message of its own
+        Message copy = MessageBuilder.fromMessage(message)
+                .removeHeader(CarEventBatchingStrategy.BATCH_FRAGMENT_HEADER)
+                .setHeader(EXCEPTION_HEADER, String.valueOf(e))
+                .build();
+
+        String exchange;
+        String routingKey;
+        if (!permanent && attempts < retryTiers.size() && properties.getConsumerQueue() != null) {
             // ═══════════════════════════════════════════════════════════════
-            // RETRY LOGIC - Temporary error, requeue for retry
+            // RETRY LOGIC - wait in the next tier, then back to the origin queue
             // ═══════════════════════════════════════════════════════════════
-            log.warn("⚠️ Retry attempt {}/{} - Requeuing message", retryCount + 1, MAX_RETRIES);
-
-            /**
-             * basicNack() parameters:
-             * - deliveryTag: Message identifier
-             * - multiple: false = reject only this message
-             * - requeue: true = put message back in queue for retry
-             *           false = send to DLQ (Dead Letter Queue)
-             *
-             * What happens with requeue=true:
-             * 1. Message goes back to END of queue
-             * 2. Another consumer (or same one) will process it again
-             * 3. Retry count should be tracked to prevent infinite loops
-             */
-            channel.basicNack(deliveryTag, false, true);
-
+            Duration delay = retryTiers.delay(attempts);
+            exchange = CarEventRetryTiers.exchangeName(delay);
+            routingKey = properties.getConsumerQueue();
+            log.warn("⚠️ Retry attempt {}/{} - back on {} in {}", attempts + 1, retryTiers.size(), routingKey, delay);
         } else {
             // ═══════════════════════════════════════════════════════════════
-            // GIVE UP - Send to DLQ for manual inspection
+            // GIVE UP - Park in the DLQ for manual inspection
             // ═══════════════════════════════════════════════════════════════
-            log.error("❌ Max retries exceeded - Sending to Dead Letter Queue");
+            exchange = RabbitMQConfig.CAR_DLX_EXCHANGE;
+            routingKey = RabbitMQConfig.CAR_EVENTS_FAILED_KEY;
+            log.error("❌ {} - Parking message in the Dead Letter Queue",
+                    permanent ? "Permanent error" : "Max retries exceeded");
+        }
 
-            /**
-             * requeue=false triggers Dead Letter Exchange
-             *
-             * Flow:
-             * 1. Message rejected with requeue=false
-             * 2. RabbitMQ checks queue's x-dead-letter-exchange property
-             * 3. Message routed to DLX with x-dead-letter-routing-key
-             * 4. DLX routes to DLQ based on binding
-             * 5. DLQ consumer can inspect failure
-             */
-            channel.basicNack(deliveryTag, false, false);
+        try {
+            confirmTracker.send(exchange, routingKey, copy)
+                    .get(retryConfirmTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (ExecutionException | TimeoutException failure) {
+            log.error("Could not re-publish failed message to {}", exchange, failure);
+            return false;
+        } catch (InterruptedException failure) {
+            Thread.currentThread().interrupt();
+            return false;
         }
     }
 }
-
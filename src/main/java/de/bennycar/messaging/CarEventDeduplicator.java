@@ -0,0 +1,227 @@
+package de.bennycar.messaging;
+
+import de.bennycar.dto.CarEventMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * ═══════════════════════════════════════════════════════════════════════════
+ * CAR EVENT DEDUPLICATOR - Skip events that were already processed
+ * ═══════════════════════════════════════════════════════════════════════════
+ *
+ * Delivery is at-least-once (outbox re-sends, publish retries, redeliveries) and
+ * car.events.queue is bound to several exchanges, so the same event - same
+ * eventId - can arrive more than once. Ids of processed events are remembered in:
+ *
+ *   BLOOM  buckets × bit set, one bucket per window / buckets of time;
+ *          new ids go into the current bucket, the oldest bucket is cleared
+ *          when time moves on - ids are forgotten after about one window
+ *   LRU    the recent-ids most recently seen ids, exact
+ *
+ *   isDuplicate(id):  no bucket has it  → NEW (definitely, the common case)
+ *                     LRU has it        → DUPLICATE (exact)
+ *                     only a bucket has → NEW - processed again: the id is older
+ *                                         than the LRU, or a false positive
+ *
+ * The Bloom filter only answers "definitely new" fast; an event is skipped only
+ * when the exact LRU confirms its id. A false positive therefore costs one map
+ * lookup, never a lost event - bursts (imports, repricing, /batch) can push a
+ * bucket far past its false positive rate.
+ *
+ * Every step is O(1): a fixed number of bit tests per bucket and one hash lookup.
+ * Memory is fixed by configuration: bits from expected-ids and false-positive-rate,
+ * plus recent-ids map entries - whatever the traffic. Each bucket is sized for
+ * expected-ids / buckets ids, so a burst above that within one bucket period
+ * sends more lookups on to the LRU until the bucket rotates out.
+ *
+ * Ids are recorded only AFTER successful processing (record), so a failed
+ * event that comes back from a retry tier is processed again. Two copies
+ * processed at the very same time can both get through (at-least-once).
+ *
+ * Events without an eventId (older producers) are never treated as duplicates.
+ *
+ * Metrics: car.events.dedupe.duplicates, car.events.dedupe.bloom.unconfirmed (Bloom
+ *          hits the LRU did not confirm), car.events.dedupe.recent.size,
+ *          car.events.dedupe.bloom.bytes
+ *
+ * Config (bennycar.events.dedupe.*): enabled, recent-ids, window, buckets,
+ * expected-ids, false-positive-rate
+ *
+ * ═══════════════════════════════════════════════════════════════════════════
+ */
+@Component
+public class CarEventDeduplicator {
+
+    private final boolean enabled;
+    private final LongSupplier nanoClock;
+    private final Map<String, Boolean> recent;
+
+    private final long[][] buckets;
+    private final int bitsPerBucket;
+    private final int hashes;
+    private final long bucketNanos;
+    private int currentBucket;
+    private long currentBucketStart;
+
+    private final Counter duplicates;
+    private final Counter unconfirmed;
+
+    @Autowired
+    public CarEventDeduplicator(MeterRegistry meterRegistry,
+                                @Value("${bennycar.events.dedupe.enabled:true}") boolean enabled,
+                                @Value("${bennycar.events.dedupe.recent-ids:100000}") int recentIds,
+                                @Value("${bennycar.events.dedupe.window:10m}") Duration window,
+                                @Value("${bennycar.events.dedupe.buckets:4}") int bucketCount,
+                                @Value("${bennycar.events.dedupe.expected-ids:1000000}") long expectedIds,
+                                @Value("${bennycar.events.dedupe.false-positive-rate:0.000001}") double falsePositiveRate) {
+        this(meterRegistry, enabled, recentIds, window, bucketCount, expectedIds, falsePositiveRate, System::nanoTime);
+    }
+
+    /** With a clock of its own, so tests can move time forward */
+    CarEventDeduplicator(MeterRegistry meterRegistry, boolean enabled, int recentIds, Duration window,
+                         int bucketCount, long expectedIds, double falsePositiveRate, LongSupplier nanoClock) {
+        if (recentIds < 1 || bucketCount < 2 || expectedIds < 1 || window.isNegative() || window.isZero()
+                || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid bennycar.events.dedupe settings: recent-ids=" + recentIds
+                    + ", buckets=" + bucketCount + ", expected-ids=" + expectedIds + ", window=" + window
+                    + ", false-positive-rate=" + falsePositiveRate);
+        }
+        this.enabled = enabled;
+        this.nanoClock = nanoClock;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > recentIds;
+            }
+        };
+
+        // A lookup tests every bucket, so each gets its share of the false positive rate
+        long idsPerBucket = (expectedIds + bucketCount - 1) / bucketCount;
+        double bucketRate = falsePositiveRate / bucketCount;
+        long bits = (long) Math.ceil(-idsPerBucket * Math.log(bucketRate) / (Math.log(2) * Math.log(2)));
+        if (bits > Integer.MAX_VALUE - 63) {
+            throw new IllegalArgumentException("bennycar.events.dedupe: expected-ids too large for one bucket");
+        }
+        this.bitsPerBucket = (int) ((bits + 63) / 64 * 64);
+        this.hashes = Math.max(1, (int) Math.round((double) bitsPerBucket / idsPerBucket * Math.log(2)));
+        this.buckets = new long[bucketCount][bitsPerBucket / 64];
+        this.bucketNanos = window.toNanos() / bucketCount;
+        this.currentBucketStart = nanoClock.getAsLong();
+
+        this.duplicates = meterRegistry.counter("car.events.dedupe.duplicates");
+        this.unconfirmed = meterRegistry.counter("car.events.dedupe.bloom.unconfirmed");
+        Gauge.builder("car.events.dedupe.recent.size", this, CarEventDeduplicator::recentSize)
+                .register(meterRegistry);
+        Gauge.builder("car.events.dedupe.bloom.bytes", () -> (double) bucketCount * bitsPerBucket / 8)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Was an event with this id already processed successfully?
+     */
+    public synchronized boolean isDuplicate(CarEventMessage event) {
+        String eventId = event.getEventId();
+        if (!enabled || eventId == null) {
+            return false;
+        }
+        rotate(nanoClock.getAsLong());
+        long hash = hash64(eventId);
+        if (!mightContain(hash)) {
+            return false;
+        }
+        if (recent.get(eventId) == null) {
+            unconfirmed.increment();
+            return false;
+        }
+        duplicates.increment();
+        return true;
+    }
+
+    /**
+     * Remember a successfully processed event
+     */
+    public synchronized void record(CarEventMessage event) {
+        String eventId = event.getEventId();
+        if (!enabled || eventId == null) {
+            return;
+        }
+        rotate(nanoClock.getAsLong());
+        long[] bucket = buckets[currentBucket];
+        long hash = hash64(eventId);
+        for (int i = 1; i <= hashes; i++) {
+            int bit = bitIndex(hash, i);
+            bucket[bit >>> 6] |= 1L << bit;
+        }
+        recent.put(eventId, Boolean.TRUE);
+    }
+
+    private synchronized int recentSize() {
+        return recent.size();
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // ROTATING BLOOM FILTER
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Move to the next bucket (clearing it) for every bucket period that has passed */
+    private void rotate(long now) {
+        long elapsed = now - currentBucketStart;
+        if (elapsed < bucketNanos) {
+            return;
+        }
+        long periods = elapsed / bucketNanos;
+        for (long i = 0; i < Math.min(periods, buckets.length); i++) {
+            currentBucket = (currentBucket + 1) % buckets.length;
+            Arrays.fill(buckets[currentBucket], 0L);
+        }
+        currentBucketStart += periods * bucketNanos;
+    }
+
+    private boolean mightContain(long hash) {
+        for (long[] bucket : buckets) {
+            boolean all = true;
+            for (int i = 1; i <= hashes && all; i++) {
+                int bit = bitIndex(hash, i);
+                all = (bucket[bit >>> 6] & (1L << bit)) != 0;
+            }
+            if (all) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Double hashing: the i-th index is h1 + i × h2 (Kirsch-Mitzenmacher) */
+    private int bitIndex(long hash, int i) {
+        int combined = (int) hash + i * (int) (hash >>> 32);
+        if (combined < 0) {
+            combined = ~combined;
+        }
+        return combined % bitsPerBucket;
+    }
+
+    /** FNV-1a over the characters, then the MurmurHash3 finalizer to spread the bits */
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe53a20ebL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,159 @@
+package de.bennycar.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ═══════════════════════════════════════════════════════════════════════════
+ * CAR EVENT DISPATCHER - Publishes outbox rows right after their commit
+ * ═══════════════════════════════════════════════════════════════════════════
+ *
+ * Without it, an event waits for the next relay poll (up to poll-interval).
+ * With it:
+ *
+ *   request thread: INSERT outbox rows → COMMIT → afterCompletion(COMMITTED)
+ *                   → hand the row ids to the executor → return to the client
+ *   dispatch thread: CarEventOutboxRelay.relayIds(ids) → broker → mark sent
+ *
+ * - The REST response never waits for the broker
+ * - ROLLED BACK transactions dispatch nothing (their rows never existed)
+ * - One transaction = one task per batch-size ids, however many events it wrote
+ * - Events keep outbox order: relayIds waits for the relay's publish lock and
+ *   sends older unsent rows first, so a task that runs early cannot overtake
+ *   an earlier transaction's events. More threads than one only wait for that
+ *   lock; they help when a dispatch is slow to get its database connection.
+ *
+ * BOUNDED: threads and queue-capacity are fixed. When the queue is full the
+ * overflow-policy decides:
+ *   relay       - drop the task; the rows stay unsent and the polling relay
+ *                 publishes them (default, no extra latency for the request)
+ *   caller-runs - publish on the committing thread (back-pressure on writers),
+ *                 in a transaction of the relay's own - the committed one is over;
+ *                 it waits for the publish lock like a dispatch thread
+ *
+ * Metrics (Micrometer, /actuator/metrics):
+ *   car.events.dispatch.queue.depth   tasks waiting for a dispatch thread
+ *   car.events.dispatch.rejected      tasks handed to the overflow policy
+ *
+ * Config (bennycar.events.dispatch.*): threads, queue-capacity, overflow-policy
+ *
+ * ═══════════════════════════════════════════════════════════════════════════
+ */
+@Component
+public class CarEventDispatcher implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CarEventDispatcher.class);
+
+    private final CarEventOutboxRelay relay;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+    private final boolean callerRuns;
+    private final int batchSize;
+
+    public CarEventDispatcher(CarEventOutboxRelay relay,
+                              MeterRegistry meterRegistry,
+                              @Value("${bennycar.events.dispatch.threads:1}") int threads,
+                              @Value("${bennycar.events.dispatch.queue-capacity:1000}") int queueCapacity,
+                              @Value("${bennycar.events.dispatch.overflow-policy:relay}") String overflowPolicy,
+                              @Value("${bennycar.outbox.batch-size:500}") int batchSize) {
+        this.relay = relay;
+        this.batchSize = batchSize;
+        this.callerRuns = switch (overflowPolicy) {
+            case "relay" -> false;
+            case "caller-runs" -> true;
+            default -> throw new IllegalArgumentException(
+                    "bennycar.events.dispatch.overflow-policy must be 'relay' or 'caller-runs', was: " + overflowPolicy);
+        };
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "event-dispatch-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        meterRegistry.gauge("car.events.dispatch.queue.depth", executor, e -> e.getQueue().size());
+        this.rejected = Counter.builder("car.events.dispatch.rejected")
+                .description("Dispatch tasks handed to the overflow policy")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publish these outbox rows once the current transaction has committed
+     *
+     * All ids of one transaction are collected and dispatched together.
+     * Outside a transaction the call is a no-op - the polling relay picks the rows up.
+     */
+    public void dispatchAfterCommit(List<Long> outboxIds) {
+        if (outboxIds.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<Long> pending = (List<Long>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<Long> ids = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, ids);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CarEventDispatcher.this);
+                    if (status == STATUS_COMMITTED) {
+                        dispatch(ids);
+                    }
+                }
+            });
+            pending = ids;
+        }
+        pending.addAll(outboxIds);
+    }
+
+    private void dispatch(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            Runnable task = () -> relayNow(chunk);
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                if (callerRuns && !executor.isShutdown()) {
+                    task.run();
+                } else {
+                    log.debug("Dispatch queue full, {} events left to the outbox relay", chunk.size());
+                }
+            }
+        }
+    }
+
+    private void relayNow(List<Long> ids) {
+        try {
+            relay.relayIds(ids);
+        } catch (Exception e) {
+            // Rows stay unsent; the polling relay retries them
+            log.warn("Immediate publish of {} events failed, left to the outbox relay: {}", ids.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
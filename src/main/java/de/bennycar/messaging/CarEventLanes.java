@@ -0,0 +1,134 @@
+package de.bennycar.messaging;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ═══════════════════════════════════════════════════════════════════════════
+ * CAR EVENT LANES - Per-car ordering with cross-car parallelism
+ * ═══════════════════════════════════════════════════════════════════════════
+ *
+ * Competing consumers (concurrency 3-10) lose ordering: an UPDATED event can be
+ * processed before the CREATED event of the same car. One consumer keeps the
+ * order but processes one event at a time. Lanes give both:
+ *
+ *   ONE receiving thread (queue order) → lane = hash(carId) mod count
+ *   lane 0: single thread, bounded queue → car 8, car 16, car 8, ...
+ *   lane 1: single thread, bounded queue → car 1, car 9, ...
+ *
+ * All events of a car go to the same lane and run in arrival order; different
+ * cars run in parallel on up to count lanes.
+ *
+ * BACK-PRESSURE: when a lane's queue is full, execute() blocks the receiving
+ * listener thread until that lane has room. The listener stops taking messages,
+ * its prefetch window fills, and the broker stops delivering - the queue backs
+ * up in RabbitMQ instead of in memory.
+ *
+ * Metrics (Micrometer, /actuator/metrics):
+ *   car.events.lane.depth{lane}   events waiting in each lane
+ *   car.events.lane.blocked       time the listener was paused by a full lane
+ *
+ * Config (bennycar.events.lanes.*): count, queue-capacity
+ *
+ * ═══════════════════════════════════════════════════════════════════════════
+ */
+@Component
+public class CarEventLanes implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CarEventLanes.class);
+
+    private final List<ThreadPoolExecutor> lanes;
+    private final Timer blocked;
+
+    public CarEventLanes(MeterRegistry meterRegistry,
+                         @Value("${bennycar.events.lanes.count:8}") int count,
+                         @Value("${bennycar.events.lanes.queue-capacity:100}") int queueCapacity) {
+        if (count < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException(
+                    "bennycar.events.lanes.count and queue-capacity must be positive, were: "
+                            + count + ", " + queueCapacity);
+        }
+        this.blocked = Timer.builder("car.events.lane.blocked")
+                .description("Time the car event listener waited for room in a full lane")
+                .register(meterRegistry);
+
+        this.lanes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String threadName = "event-lane-" + i;
+            ThreadPoolExecutor lane = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, threadName);
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    this::waitForRoom);
+            lane.prestartAllCoreThreads();
+            lanes.add(lane);
+            Gauge.builder("car.events.lane.depth", lane, executor -> executor.getQueue().size())
+                    .description("Car events waiting in this lane")
+                    .tag("lane", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+    }
+
+    public int count() {
+        return lanes.size();
+    }
+
+    /** Lane of a car - null keys (events without a car) all share lane 0 */
+    public int laneOf(Long carId) {
+        return carId == null ? 0 : Math.floorMod(Long.hashCode(carId), lanes.size());
+    }
+
+    /**
+     * Run the task on the car's lane, after everything handed in for that car before
+     *
+     * Blocks while the lane is full.
+     *
+     * @throws RejectedExecutionException if interrupted while waiting, or after shutdown
+     */
+    public void execute(Long carId, Runnable task) {
+        lanes.get(laneOf(carId)).execute(task);
+    }
+
+    /** Rejection handler: the lane is full, so block the caller until it is not */
+    private void waitForRoom(Runnable task, ThreadPoolExecutor lane) {
+        if (lane.isShutdown()) {
+            throw new RejectedExecutionException("Car event lanes are shut down");
+        }
+        long start = System.nanoTime();
+        try {
+            lane.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for a car event lane", e);
+        } finally {
+            blocked.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        lanes.forEach(ThreadPoolExecutor::shutdown);
+        for (ThreadPoolExecutor lane : lanes) {
+            if (!lane.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("Car event lane did not drain in time, {} events left (redelivered by the broker)",
+                        lane.getQueue().size());
+            }
+        }
+    }
+}
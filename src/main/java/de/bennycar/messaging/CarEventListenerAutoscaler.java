@@ -0,0 +1,401 @@
+package de.bennycar.messaging;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ═══════════════════════════════════════════════════════════════════════════
+ * CAR EVENT LISTENER AUTOSCALER - Consumers and prefetch follow the load
+ * ═══════════════════════════════════════════════════════════════════════════
+ *
+ * Every interval, for each configured listener container:
+ *
+ *   depth        ready messages in its queue(s)           (AmqpAdmin)
+ *   utilization  time in the listener / (interval × consumers)
+ *   latency      mean time per listener call                (both from Spring AMQP's
+ *                                                            spring.rabbitmq.listener timer)
+ *
+ *   backlog  = depth > consumers × prefetch   (more waiting than in flight)
+ *
+ *   backlog, utilization ≥ scale-up      → SCALE_UP      consumers + 50 %
+ *   backlog, utilization below it        → PREFETCH_UP   prefetch × 2 (consumers are waiting
+ *                                                         for messages, not working), unless
+ *                                                         one call takes longer than slow-call
+ *   empty queue, utilization ≤ scale-down → SCALE_DOWN    consumers - 1, then PREFETCH_DOWN ÷ 2
+ *   anything else                         → HOLD
+ *
+ * HYSTERESIS: a decision is applied only after it came out the same stable-samples
+ * times in a row, and the streak starts over after every change. The gap between
+ * scale-up and scale-down utilization keeps one sample from flipping the decision.
+ * Scaling up is fast (+50 %), scaling down slow (-1).
+ *
+ * Everything stays within the listener's configured bounds. The autoscaler pins
+ * each container to its minimum before the containers start, and turns off the
+ * container's own concurrent..max scaling (both are always set to the same value).
+ * Consumer count changes apply at once; a prefetch change restarts the container,
+ * because prefetch is set when a consumer opens its channel.
+ *
+ * RESTART: stop() lets in-flight listener calls finish for the container's shutdown
+ * timeout, then closes their channels - an ack sent after that fails and the
+ * delivery is redelivered. One call of the batch listener handles batch-size
+ * messages (50 × ~100 ms = 5 s, as long as Spring AMQP's default timeout), so every
+ * autoscaled container gets shutdown-timeout, raised to twice the slowest call seen
+ * before each restart. A batch listener's minimum prefetch must be at least its
+ * batch-size, or a batch could never fill.
+ *
+ * Never list carEventLaneConsumer: its single consumer is what keeps per-car order.
+ *
+ * Metrics (Micrometer, tag listener):
+ *   car.events.autoscale.consumers / prefetch / queue.depth / utilization / latency
+ *   car.events.autoscale.decisions{action}   applied decisions
+ *
+ * Config (bennycar.events.autoscale.*): enabled, interval, listeners,
+ * stable-samples, scale-up-utilization, scale-down-utilization, slow-call,
+ * shutdown-timeout; bennycar.events.consumer.batch-size for the prefetch check
+ *
+ * ═══════════════════════════════════════════════════════════════════════════
+ */
+@Component
+public class CarEventListenerAutoscaler implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(CarEventListenerAutoscaler.class);
+
+    /** Recorded by every Spring AMQP listener container, tagged with listener.id */
+    private static final String LISTENER_TIMER = "spring.rabbitmq.listener";
+
+    private enum Action { HOLD, SCALE_UP, SCALE_DOWN, PREFETCH_UP, PREFETCH_DOWN }
+
+    /** "listenerId:minConsumers-maxConsumers:minPrefetch-maxPrefetch" */
+    private record Bounds(String listenerId, int minConsumers, int maxConsumers, int minPrefetch, int maxPrefetch) {
+
+        static Bounds parse(String spec) {
+            String[] parts = spec.trim().split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException(
+                        "bennycar.events.autoscale.listeners entry must be id:min-max:min-max, was: " + spec);
+            }
+            int[] consumers = range(parts[1], spec);
+            int[] prefetch = range(parts[2], spec);
+            return new Bounds(parts[0], consumers[0], consumers[1], prefetch[0], prefetch[1]);
+        }
+
+        private static int[] range(String range, String spec) {
+            String[] bounds = range.split("-");
+            int min = Integer.parseInt(bounds[0].trim());
+            int max = Integer.parseInt(bounds[bounds.length - 1].trim());
+            if (bounds.length > 2 || min < 1 || max < min) {
+                throw new IllegalArgumentException("Bad range '" + range + "' in autoscale entry: " + spec);
+            }
+            return new int[]{min, max};
+        }
+    }
+
+    /** One autoscaled container; written by the sampling thread only, read by the gauges */
+    private static final class Listener {
+
+        private final Bounds bounds;
+        private final SimpleMessageListenerContainer container;
+
+        private volatile int consumers;
+        private volatile int prefetch;
+        private volatile long depth;
+        private volatile double utilization;
+        private volatile double latencyMillis;
+        private long slowestCallMillis;
+
+        private long lastSampleNanos;
+        private long lastBusyNanos;
+        private long lastCalls;
+        private Action streakAction = Action.HOLD;
+        private int streak;
+
+        Listener(Bounds bounds, SimpleMessageListenerContainer container) {
+            this.bounds = bounds;
+            this.container = container;
+        }
+    }
+
+    private final RabbitListenerEndpointRegistry listenerRegistry;
+    private final AmqpAdmin amqpAdmin;
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+    private final Duration interval;
+    private final List<Bounds> bounds;
+    private final int stableSamples;
+    private final double scaleUpUtilization;
+    private final double scaleDownUtilization;
+    private final Duration slowCall;
+    private final Duration shutdownTimeout;
+    private final int consumerBatchSize;
+
+    private final List<Listener> listeners = new ArrayList<>();
+    private volatile ScheduledExecutorService scheduler;
+
+    public CarEventListenerAutoscaler(RabbitListenerEndpointRegistry listenerRegistry,
+                                      AmqpAdmin amqpAdmin,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${bennycar.events.autoscale.enabled:true}") boolean enabled,
+                                      @Value("${bennycar.events.autoscale.interval:10s}") Duration interval,
+                                      @Value("${bennycar.events.autoscale.listeners:}") List<String> listeners,
+                                      @Value("${bennycar.events.autoscale.stable-samples:3}") int stableSamples,
+                                      @Value("${bennycar.events.autoscale.scale-up-utilization:0.75}") double scaleUpUtilization,
+                                      @Value("${bennycar.events.autoscale.scale-down-utilization:0.25}") double scaleDownUtilization,
+                                      @Value("${bennycar.events.autoscale.slow-call:1s}") Duration slowCall,
+                                      @Value("${bennycar.events.autoscale.shutdown-timeout:30s}") Duration shutdownTimeout,
+                                      @Value("${bennycar.events.consumer.batch-size:50}") int consumerBatchSize) {
+        if (scaleDownUtilization >= scaleUpUtilization) {
+            throw new IllegalArgumentException(
+                    "bennycar.events.autoscale.scale-down-utilization must be below scale-up-utilization");
+        }
+        if (shutdownTimeout.isNegative() || shutdownTimeout.isZero()) {
+            throw new IllegalArgumentException("bennycar.events.autoscale.shutdown-timeout must be positive");
+        }
+        this.listenerRegistry = listenerRegistry;
+        this.amqpAdmin = amqpAdmin;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.interval = interval;
+        this.bounds = listeners.stream().filter(spec -> !spec.isBlank()).map(Bounds::parse).toList();
+        this.stableSamples = Math.max(1, stableSamples);
+        this.scaleUpUtilization = scaleUpUtilization;
+        this.scaleDownUtilization = scaleDownUtilization;
+        this.slowCall = slowCall;
+        this.shutdownTimeout = shutdownTimeout;
+        this.consumerBatchSize = consumerBatchSize;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // LIFECYCLE - before the listener containers start, after they stop
+    // ═══════════════════════════════════════════════════════════════════════
+
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 1000;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || bounds.isEmpty()) {
+            log.info("Listener autoscaler disabled");
+            return;
+        }
+        for (Bounds listenerBounds : bounds) {
+            MessageListenerContainer container = listenerRegistry.getListenerContainer(listenerBounds.listenerId());
+            if (!(container instanceof SimpleMessageListenerContainer simple)) {
+                throw new IllegalStateException("Autoscale listener '" + listenerBounds.listenerId()
+                        + "' is not a @RabbitListener id with a simple listener container");
+            }
+            if (simple.isConsumerBatchEnabled() && listenerBounds.minPrefetch() < consumerBatchSize) {
+                throw new IllegalArgumentException("Autoscale listener '" + listenerBounds.listenerId()
+                        + "' is a batch listener: its minimum prefetch " + listenerBounds.minPrefetch()
+                        + " must be at least bennycar.events.consumer.batch-size " + consumerBatchSize);
+            }
+            Listener listener = new Listener(listenerBounds, simple);
+            simple.setShutdownTimeout(shutdownTimeout.toMillis());
+            setConsumers(listener, listenerBounds.minConsumers());
+            listener.prefetch = listenerBounds.minPrefetch();
+            simple.setPrefetchCount(listener.prefetch);
+            registerMetrics(listener);
+            listeners.add(listener);
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "listener-autoscaler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sampleAll, interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        log.info("Listener autoscaler started for {}", bounds.stream().map(Bounds::listenerId).toList());
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService current = scheduler;
+        if (current == null) {
+            return;
+        }
+        scheduler = null;
+        current.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    private void registerMetrics(Listener listener) {
+        String id = listener.bounds.listenerId();
+        Gauge.builder("car.events.autoscale.consumers", listener, l -> l.consumers)
+                .tag("listener", id).register(meterRegistry);
+        Gauge.builder("car.events.autoscale.prefetch", listener, l -> l.prefetch)
+                .tag("listener", id).register(meterRegistry);
+        Gauge.builder("car.events.autoscale.queue.depth", listener, l -> l.depth)
+                .tag("listener", id).register(meterRegistry);
+        Gauge.builder("car.events.autoscale.utilization", listener, l -> l.utilization)
+                .tag("listener", id).register(meterRegistry);
+        Gauge.builder("car.events.autoscale.latency", listener, l -> l.latencyMillis)
+                .description("Mean listener call duration in ms over the last interval")
+                .tag("listener", id).register(meterRegistry);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // SAMPLE → DECIDE → APPLY
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private void sampleAll() {
+        for (Listener listener : listeners) {
+            try {
+                sample(listener);
+            } catch (Exception e) {
+                // Broker unreachable or container restarting - try again next interval
+                log.warn("Autoscaler sample for {} failed: {}", listener.bounds.listenerId(), e.getMessage());
+            }
+        }
+    }
+
+    private void sample(Listener listener) {
+        if (!listener.container.isRunning()) {
+            listener.lastSampleNanos = 0;
+            listener.streak = 0;
+            return;
+        }
+
+        long depth = 0;
+        for (String queue : listener.container.getQueueNames()) {
+            QueueInformation info = amqpAdmin.getQueueInfo(queue);
+            if (info != null) {
+                depth += info.getMessageCount();
+            }
+        }
+
+        long busyNanos = 0;
+        long calls = 0;
+        for (Timer timer : meterRegistry.find(LISTENER_TIMER).tag("listener.id", listener.bounds.listenerId()).timers()) {
+            busyNanos += (long) timer.totalTime(TimeUnit.NANOSECONDS);
+            calls += timer.count();
+            // Timer.max decays - keep the slowest call ever seen for the restart timeout
+            listener.slowestCallMillis = Math.max(listener.slowestCallMillis,
+                    (long) Math.ceil(timer.max(TimeUnit.MILLISECONDS)));
+        }
+
+        long now = System.nanoTime();
+        boolean firstSample = listener.lastSampleNanos == 0;
+        long elapsedNanos = now - listener.lastSampleNanos;
+        long busyDelta = busyNanos - listener.lastBusyNanos;
+        long callDelta = calls - listener.lastCalls;
+        listener.lastSampleNanos = now;
+        listener.lastBusyNanos = busyNanos;
+        listener.lastCalls = calls;
+        listener.depth = depth;
+        if (firstSample) {
+            return;     // no interval to compare with yet
+        }
+        listener.utilization = (double) busyDelta / ((double) elapsedNanos * listener.consumers);
+        listener.latencyMillis = callDelta > 0 ? busyDelta / 1e6 / callDelta : 0;
+
+        Action action = decide(listener);
+        if (action == listener.streakAction) {
+            listener.streak++;
+        } else {
+            listener.streakAction = action;
+            listener.streak = 1;
+        }
+        if (action != Action.HOLD && listener.streak >= stableSamples) {
+            listener.streak = 0;
+            apply(listener, action);
+        }
+    }
+
+    private Action decide(Listener listener) {
+        Bounds limits = listener.bounds;
+        boolean backlog = listener.depth > (long) listener.consumers * listener.prefetch;
+        boolean busy = listener.utilization >= scaleUpUtilization;
+
+        if (backlog) {
+            if (busy && listener.consumers < limits.maxConsumers()) {
+                return Action.SCALE_UP;
+            }
+            if (!busy && listener.prefetch < limits.maxPrefetch()
+                    && listener.latencyMillis < slowCall.toMillis()) {
+                return Action.PREFETCH_UP;
+            }
+            return Action.HOLD;
+        }
+        if (listener.depth == 0 && listener.utilization <= scaleDownUtilization) {
+            if (listener.consumers > limits.minConsumers()) {
+                return Action.SCALE_DOWN;
+            }
+            if (listener.prefetch > limits.minPrefetch()) {
+                return Action.PREFETCH_DOWN;
+            }
+        }
+        return Action.HOLD;
+    }
+
+    private void apply(Listener listener, Action action) {
+        Bounds limits = listener.bounds;
+        switch (action) {
+            case SCALE_UP -> setConsumers(listener,
+                    Math.min(limits.maxConsumers(), listener.consumers + Math.max(1, listener.consumers / 2)));
+            case SCALE_DOWN -> setConsumers(listener, listener.consumers - 1);
+            case PREFETCH_UP -> setPrefetch(listener, Math.min(limits.maxPrefetch(), listener.prefetch * 2));
+            case PREFETCH_DOWN -> setPrefetch(listener, Math.max(limits.minPrefetch(), listener.prefetch / 2));
+            case HOLD -> {
+                return;
+            }
+        }
+        meterRegistry.counter("car.events.autoscale.decisions",
+                "listener", limits.listenerId(), "action", action.name().toLowerCase()).increment();
+        log.info("Autoscaler {}: {} → consumers={}, prefetch={} (depth={}, utilization={}, latency={} ms)",
+                limits.listenerId(), action, listener.consumers, listener.prefetch, listener.depth,
+                String.format("%.2f", listener.utilization), String.format("%.1f", listener.latencyMillis));
+    }
+
+    /**
+     * Pin concurrent and max consumers to the same value - the container adds or
+     * stops consumers right away and its own scaling has no room left
+     */
+    private static void setConsumers(Listener listener, int consumers) {
+        // Raise max first: each setter checks concurrent <= max
+        listener.container.setMaxConcurrentConsumers(Integer.MAX_VALUE);
+        listener.container.setConcurrentConsumers(consumers);
+        listener.container.setMaxConcurrentConsumers(consumers);
+        listener.consumers = consumers;
+    }
+
+    /**
+     * Prefetch (basic.qos) is set when a consumer starts, so the container is restarted:
+     * in-flight calls finish (the shutdown timeout outlasts the slowest call seen),
+     * unacked prefetched messages go back to the queue
+     */
+    private void setPrefetch(Listener listener, int prefetch) {
+        listener.container.setPrefetchCount(prefetch);
+        listener.prefetch = prefetch;
+        if (listener.container.isRunning()) {
+            listener.container.setShutdownTimeout(
+                    Math.max(shutdownTimeout.toMillis(), 2 * listener.slowestCallMillis));
+            listener.container.stop();
+            listener.container.start();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package de.bennycar.messaging;
+
+import de.bennycar.config.RabbitMQConfig;
+import de.bennycar.dto.CarEventMessage;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+/**
+ * ═══════════════════════════════════════════════════════════════════════════
+ * CAR EVENT MESSAGE CONVERTER - JSON or binary, chosen by content type
+ * ═══════════════════════════════════════════════════════════════════════════
+ *
+ * SENDING: CarEventMessages are written in the configured format
+ * (bennycar.events.codec: json | binary); everything else is JSON.
+ *
+ * RECEIVING: the content type of each message decides, whatever the local setting:
+ *   application/x-car-event → CarEventBinaryCodec
+ *   anything else           → the JSON converter
+ *
+ * HEADERS: every CarEventMessage carries car-event = eventType, and a CHANGED
+ * event changed-price / changed-availability for the bits of its change mask -
+ * the headers exchange routes on them (RabbitMQConfig 8.4b).
+ *
+ * Rollout: deploy with codec json (every instance now READS both formats),
+ * then switch producers to binary. Rolling back is the same in reverse.
+ *
+ * ═══════════════════════════════════════════════════════════════════════════
+ */
+public class CarEventMessageConverter implements MessageConverter {
+
+    private final MessageConverter json;
+    private final boolean writeBinary;
+
+    public CarEventMessageConverter(MessageConverter json, boolean writeBinary) {
+        this.json = json;
+        this.writeBinary = writeBinary;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) throws MessageConversionException {
+        if (object instanceof CarEventMessage event) {
+            setRoutingHeaders(event, messageProperties);
+        }
+        if (writeBinary && object instanceof CarEventMessage event) {
+            byte[] body = CarEventBinaryCodec.encode(event);
+            messageProperties.setContentType(CarEventBinaryCodec.CONTENT_TYPE);
+            messageProperties.setContentLength(body.length);
+            return new Message(body, messageProperties);
+        }
+        return json.toMessage(object, messageProperties);
+    }
+
+    private static void setRoutingHeaders(CarEventMessage event, MessageProperties messageProperties) {
+        if (event.getEventType() != null) {
+            messageProperties.setHeader(RabbitMQConfig.HEADER_EVENT_TYPE, event.getEventType());
+        }
+        // Presence is what the bindings match on - absent means "not changed"
+        if (event.hasChange(CarEventMessage.CHANGED_PRICE)) {
+            messageProperties.setHeader(RabbitMQConfig.HEADER_PRICE_CHANGED, true);
+        }
+        if (event.hasChange(CarEventMessage.CHANGED_AVAILABILITY)) {
+            messageProperties.setHeader(RabbitMQConfig.HEADER_AVAILABILITY_CHANGED, true);
+        }
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws MessageConversionException {
+        if (CarEventBinaryCodec.CONTENT_TYPE.equals(message.getMessageProperties().getContentType())) {
+            try {
+                return CarEventBinaryCodec.decode(message.getBody());
+            } catch (IllegalArgumentException e) {
+                throw new MessageConversionException("Unreadable binary car event", e);
+            }
+        }
+        return json.fromMessage(message);
+    }
+}
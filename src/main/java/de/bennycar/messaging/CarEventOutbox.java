@@ -0,0 +1,126 @@
+package de.bennycar.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import de.bennycar.dto.CarEventMessage;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ═══════════════════════════════════════════════════════════════════════════
+ * CAR EVENT OUTBOX - Write side of the transactional outbox
+ * ═══════════════════════════════════════════════════════════════════════════
+ *
+ * Problem with "commit, then publish":
+ * - broker down between the two → event lost (the send methods only log)
+ * - the request thread waits for the broker round trip
+ *
+ * Instead, an event is just one more row INSERTed in the SAME database
+ * transaction as the car change: both commit or neither does.
+ * CarEventOutboxRelay publishes the rows afterwards (at-least-once) - right
+ * after the commit via CarEventDispatcher, or on its next poll.
+ *
+ * Exchange and routing key are resolved here, with the same rules as
+ * CarEventProducer, so the relay only copies rows onto the wire.
+ *
+ * ═══════════════════════════════════════════════════════════════════════════
+ */
+@Component
+public class CarEventOutbox {
+
+    private static final String INSERT = "INSERT INTO car_event_outbox "
+            + "(exchange, routing_key, event_type, car_id, payload) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CarEventDispatcher dispatcher;
+    private final ObjectWriter eventWriter;
+
+    public CarEventOutbox(JdbcTemplate jdbcTemplate, CarEventDispatcher dispatcher, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dispatcher = dispatcher;
+        this.eventWriter = objectMapper.writerFor(CarEventMessage.class);
+    }
+
+    /**
+     * Record one event in the caller's transaction
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(CarEventMessage event) {
+        addAll(List.of(event));
+    }
+
+    /**
+     * Record events in the caller's transaction as one JDBC batch;
+     * they are published as soon as that transaction commits
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addAll(List<CarEventMessage> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<Long> ids = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> insert(connection, events));
+        dispatcher.dispatchAfterCommit(ids);
+    }
+
+    /**
+     * Record events on a connection whose transaction the caller manages itself
+     * (the COPY based import works on a raw connection). No after-commit dispatch:
+     * the polling relay publishes these rows in full batches.
+     */
+    public void addAll(Connection connection, List<CarEventMessage> events) throws SQLException {
+        if (events.isEmpty()) {
+            return;
+        }
+        insert(connection, events);
+    }
+
+    private List<Long> insert(Connection connection, List<CarEventMessage> events) throws SQLException {
+        List<Long> ids = new ArrayList<>(events.size());
+        try (PreparedStatement ps = connection.prepareStatement(INSERT, new String[]{"id"})) {
+            for (CarEventMessage event : events) {
+                bind(ps, event);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                while (keys.next()) {
+                    ids.add(keys.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void bind(PreparedStatement ps, CarEventMessage event) throws SQLException {
+        ps.setString(1, CarEventProducer.exchangeFor(event));
+        ps.setString(2, CarEventProducer.routingKeyFor(event));
+        ps.setString(3, event.getEventType());
+        if (event.getCarId() != null) {
+            ps.setLong(4, event.getCarId());
+        } else {
+            ps.setNull(4, Types.BIGINT);
+        }
+        ps.setString(5, serialize(event));
+    }
+
+    private String serialize(CarEventMessage event) {
+        try {
+            return eventWriter.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
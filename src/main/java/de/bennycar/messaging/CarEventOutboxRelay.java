@@ -0,0 +1,372 @@
+package de.bennycar.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import de.bennycar.dto.CarEventMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.batch.MessageBatch;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Array;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ═══════════════════════════════════════════════════════════════════════════
+ * CAR EVENT OUTBOX RELAY - Publishes car_event_outbox rows to RabbitMQ
+ * ═══════════════════════════════════════════════════════════════════════════
+ *
+ * Each cycle runs in one database transaction:
+ * 0. LOCK    the publish lock (pg_advisory_xact_lock) - one cycle at a time,
+ *            across threads AND instances; released by the commit/rollback
+ * 1. CLAIM   the lowest unsent rows in id order, up to batch-size
+ * 2. PUBLISH all of them through PublisherConfirmTracker, then wait until
+ *            every correlated confirm is in (nacks/returns retried there)
+ *            With bennycar.events.batching.enabled, consecutive rows for the same
+ *            exchange + routing key go out as ONE batched AMQP message
+ *            (CarEventBatchingStrategy) with ONE confirm - bulk writes (saveCars,
+ *            reprice, import) become a few large messages instead of one per event
+ * 3. MARK    them sent (sent_at) and COMMIT
+ *
+ * A nack, timeout or broker outage throws before step 3: the transaction rolls
+ * back and the rows are claimed again later. Delivery is AT-LEAST-ONCE -
+ * consumers must tolerate the rare duplicate.
+ *
+ * Most rows are published right after their commit by CarEventDispatcher
+ * (relayIds); the polling workers are the safety net for everything the fast
+ * path skipped - overflow, broker outage, crash, bulk imports.
+ *
+ * ORDER: events go to the broker in outbox id order. Cycles never overlap, and
+ * relayIds publishes every unsent row up to its highest id, so the CHANGED row of
+ * a later transaction cannot overtake the CREATED row of an earlier one. Committed
+ * writes to one car are ordered by its row lock and version check, so its events
+ * get increasing ids - per-car order holds end to end (the consumer lanes keep it). Not covered: a nacked
+ * publish is retried after the rows behind it, and a row whose transaction
+ * commits after a higher id was published goes out after it (only rows of
+ * different cars can do that).
+ *
+ * The price of the lock: publishing does not run in parallel. Each cycle still
+ * publishes a whole batch without waiting in between and confirms it at once,
+ * and a polling worker that finds the lock taken skips that poll.
+ *
+ * Every cycle runs in a NEW transaction (REQUIRES_NEW). relayIds may be called from
+ * an afterCompletion callback (caller-runs overflow), where the finished request
+ * transaction's connection is still bound - joining it would claim and mark rows
+ * on a connection that is never committed, and every event would go out twice.
+ *
+ * A worker loops without pause while it finds full batches and sleeps
+ * poll-interval once the outbox is drained. Published rows are deleted after
+ * the retention period.
+ *
+ * Config (bennycar.outbox.*): workers, batch-size, poll-interval, confirm-timeout, retention;
+ *        bennycar.events.batching.enabled, size, buffer-limit
+ *
+ * ═══════════════════════════════════════════════════════════════════════════
+ */
+@Component
+public class CarEventOutboxRelay implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(CarEventOutboxRelay.class);
+
+    /** Advisory lock key that serializes publishing - "car_out" */
+    private static final long PUBLISH_LOCK = 0x6361725f6f7574L;
+
+    private static final String LOCK = "SELECT pg_advisory_xact_lock(?)";
+
+    private static final String TRY_LOCK = "SELECT pg_try_advisory_xact_lock(?)";
+
+    private static final String CLAIM = """
+            SELECT id, exchange, routing_key, payload
+            FROM car_event_outbox
+            WHERE sent_at IS NULL
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE""";
+
+    private static final String CLAIM_UP_TO = """
+            SELECT id, exchange, routing_key, payload
+            FROM car_event_outbox
+            WHERE sent_at IS NULL AND id <= ?
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE""";
+
+    private static final String MARK_SENT = "UPDATE car_event_outbox SET sent_at = LOCALTIMESTAMP WHERE id = ANY (?)";
+
+    private static final String DELETE_SENT = "DELETE FROM car_event_outbox WHERE sent_at < ?";
+
+    private record OutboxRow(long id, String exchange, String routingKey, String payload) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PublisherConfirmTracker confirmTracker;
+    private final MessageConverter messageConverter;
+    private final ObjectReader eventReader;
+
+    private final boolean enabled;
+    private final int workers;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration confirmTimeout;
+    private final Duration retention;
+    private final boolean batching;
+    private final int batchingSize;
+    private final int batchingBufferLimit;
+
+    private volatile ScheduledExecutorService scheduler;
+
+    public CarEventOutboxRelay(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               PublisherConfirmTracker confirmTracker,
+                               MessageConverter messageConverter,
+                               ObjectMapper objectMapper,
+                               @Value("${bennycar.outbox.enabled:true}") boolean enabled,
+                               @Value("${bennycar.outbox.workers:1}") int workers,
+                               @Value("${bennycar.outbox.batch-size:500}") int batchSize,
+                               @Value("${bennycar.outbox.poll-interval:200ms}") Duration pollInterval,
+                               @Value("${bennycar.outbox.confirm-timeout:5s}") Duration confirmTimeout,
+                               @Value("${bennycar.outbox.retention:7d}") Duration retention,
+                               @Value("${bennycar.events.batching.enabled:true}") boolean batching,
+                               @Value("${bennycar.events.batching.size:100}") int batchingSize,
+                               @Value("${bennycar.events.batching.buffer-limit:262144}") int batchingBufferLimit) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.confirmTracker = confirmTracker;
+        this.messageConverter = messageConverter;
+        this.eventReader = objectMapper.readerFor(CarEventMessage.class);
+        this.enabled = enabled;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.confirmTimeout = confirmTimeout;
+        this.retention = retention;
+        this.batching = batching;
+        this.batchingSize = batchingSize;
+        this.batchingBufferLimit = batchingBufferLimit;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // LIFECYCLE - workers start after the context (and Flyway) are ready
+    // ═══════════════════════════════════════════════════════════════════════
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            log.info("Outbox relay disabled");
+            return;
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(workers + 1, runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            scheduler.scheduleWithFixedDelay(this::drain, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        scheduler.scheduleWithFixedDelay(this::deleteSent, 1, 60, TimeUnit.MINUTES);
+        log.info("Outbox relay started: {} workers, batch size {}", workers, batchSize);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService current = scheduler;
+        if (current == null) {
+            return;
+        }
+        scheduler = null;
+        current.shutdown();
+        try {
+            // Let in-flight batches commit; an interrupted batch is simply claimed again after restart
+            current.awaitTermination(confirmTimeout.toMillis() * 2, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Outbox relay stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // RELAY
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Publish batches until one comes back smaller than batch-size (outbox drained)
+     */
+    private void drain() {
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize && isRunning());
+        } catch (Exception e) {
+            // Rows stay unsent and are retried on the next poll
+            log.warn("Outbox relay batch failed, retrying in {} ms: {}", pollInterval.toMillis(), e.getMessage());
+        }
+    }
+
+    /**
+     * Relay these rows right away - the after-commit fast path (CarEventDispatcher)
+     *
+     * Publishes every unsent row up to the highest of these ids, older rows first,
+     * so they cannot overtake events committed before them. Waits for the publish
+     * lock; rows already sent by another cycle are not claimed again.
+     *
+     * @return number of rows relayed
+     */
+    public int relayIds(List<Long> ids) {
+        long upTo = Collections.max(ids);
+        int relayed = 0;
+        int cycle;
+        do {
+            cycle = relay(CLAIM_UP_TO, ps -> {
+                ps.setLong(1, upTo);
+                ps.setInt(2, batchSize);
+            }, true);
+            relayed += cycle;
+        } while (cycle == batchSize && isRunning());
+        return relayed;
+    }
+
+    private int relayBatch() {
+        return relay(CLAIM, ps -> ps.setInt(1, batchSize), false);
+    }
+
+    /**
+     * One lock → claim → publish → confirm → mark cycle in a single, new transaction
+     *
+     * @param wait - wait for the publish lock; otherwise return 0 when another cycle holds it
+     * @return number of rows relayed
+     */
+    private int relay(String claimSql, PreparedStatementSetter claimParams, boolean wait) {
+        Integer relayed = transactionTemplate.execute(status -> {
+            if (wait) {
+                jdbcTemplate.query(LOCK, ps -> ps.setLong(1, PUBLISH_LOCK), rs -> null);
+            } else if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK, Boolean.class, PUBLISH_LOCK))) {
+                return 0;
+            }
+            List<OutboxRow> rows = jdbcTemplate.query(claimSql, claimParams, (rs, rowNum) -> new OutboxRow(
+                    rs.getLong("id"), rs.getString("exchange"), rs.getString("routing_key"),
+                    rs.getString("payload")));
+            if (rows.isEmpty()) {
+                return 0;
+            }
+
+            List<Long> sent = publish(rows);
+
+            jdbcTemplate.update(MARK_SENT, ps -> {
+                Array ids = ps.getConnection().createArrayOf("bigint", sent.toArray());
+                ps.setArray(1, ids);
+            });
+            return rows.size();
+        });
+        if (relayed != null && relayed > 0) {
+            log.debug("Outbox relay published {} events", relayed);
+        }
+        return relayed == null ? 0 : relayed;
+    }
+
+    /**
+     * Publish every row without waiting in between, then wait for all publisher confirms
+     *
+     * With batching, rows are packed in outbox order: a batch is sent when it is
+     * full (size / buffer-limit) or the next row has another exchange or routing
+     * key - events never overtake each other. A batch is sent and confirmed as
+     * one message, so its rows are marked sent together.
+     *
+     * @return ids to mark as sent (unreadable payloads included - retrying cannot fix them)
+     * @throws AmqpException when a publish finally failed or confirm-timeout passed
+     */
+    private List<Long> publish(List<OutboxRow> rows) {
+        List<Long> sent = new ArrayList<>(rows.size());
+        List<CompletableFuture<Void>> confirms = new ArrayList<>(rows.size());
+        // One strategy per cycle: workers relay in parallel and a batch never outlives its transaction
+        CarEventBatchingStrategy batches = batching
+                ? new CarEventBatchingStrategy(batchingSize, batchingBufferLimit, 0)
+                : null;
+        OutboxRow batchStart = null;
+        for (OutboxRow row : rows) {
+            CarEventMessage event;
+            try {
+                event = eventReader.readValue(row.payload());
+            } catch (IOException e) {
+                log.error("❌ Dropping unreadable outbox row id={}", row.id(), e);
+                sent.add(row.id());
+                continue;
+            }
+            sent.add(row.id());
+            if (batches == null) {
+                confirms.add(confirmTracker.send(row.exchange(), row.routingKey(), event));
+                continue;
+            }
+            if (batchStart != null && !(batchStart.exchange().equals(row.exchange())
+                    && batchStart.routingKey().equals(row.routingKey()))) {
+                batches.releaseBatches().forEach(batch -> confirms.add(sendBatch(batch)));
+            }
+            batchStart = row;
+            MessageBatch full = batches.addToBatch(row.exchange(), row.routingKey(),
+                    messageConverter.toMessage(event, new MessageProperties()));
+            if (full != null) {
+                confirms.add(sendBatch(full));
+            }
+        }
+        if (batches != null) {
+            batches.releaseBatches().forEach(batch -> confirms.add(sendBatch(batch)));
+        }
+        try {
+            CompletableFuture.allOf(confirms.toArray(CompletableFuture[]::new))
+                    .get(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new AmqpException("Outbox batch not confirmed: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new AmqpException("Outbox batch not confirmed within " + confirmTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException(e);
+        }
+        return sent;
+    }
+
+    private CompletableFuture<Void> sendBatch(MessageBatch batch) {
+        return confirmTracker.send(batch.getExchange(), batch.getRoutingKey(), batch.getMessage());
+    }
+
+    private void deleteSent() {
+        try {
+            int deleted = jdbcTemplate.update(DELETE_SENT, LocalDateTime.now().minus(retention));
+            if (deleted > 0) {
+                log.info("Outbox cleanup: {} published events older than {} deleted", deleted, retention);
+            }
+        } catch (Exception e) {
+            log.warn("Outbox cleanup failed: {}", e.getMessage());
+        }
+    }
+}
@@ -4,6 +4,8 @@ import de.bennycar.config.RabbitMQConfig;
 import de.bennycar.dto.CarEventMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.BatchingRabbitTemplate;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 
@@ -47,8 +49,18 @@ public class CarEventProducer {
      */
     private final RabbitTemplate rabbitTemplate;
 
-    public CarEventProducer(RabbitTemplate rabbitTemplate) {
+    /** Buffers messages per exchange + routing key into batches (see CarEventBatchingStrategy) */
+    private final BatchingRabbitTemplate batchingRabbitTemplate;
+
+    /** Catches events while the broker is unreachable and replays them later */
+    private final CarEventSpool carEventSpool;
+
+    public CarEventProducer(RabbitTemplate rabbitTemplate,
+                            BatchingRabbitTemplate batchingRabbitTemplate,
+                            CarEventSpool carEventSpool) {
         this.rabbitTemplate = rabbitTemplate;
+        this.batchingRabbitTemplate = batchingRabbitTemplate;
+        this.carEventSpool = carEventSpool;
     }
 
     // ═══════════════════════════════════════════════════════════════════════
@@ -81,7 +93,7 @@ public class CarEventProducer {
             log.info("═══════════════════════════════════════════════════════");
 
             // SEND MESSAGE - This is the core AMQP operation!
-            rabbitTemplate.convertAndSend(
+            sendOrSpool(
                     RabbitMQConfig.CAR_DIRECT_EXCHANGE,  // Which exchange to send to
                     routingKey,                           // Routing key for matching
                     message                               // Java object (auto-converted to JSON)
@@ -130,7 +142,7 @@ public class CarEventProducer {
             log.info("  - Exact key '{}' will match", routingKey);
             log.info("═══════════════════════════════════════════════════════");
 
-            rabbitTemplate.convertAndSend(
+            sendOrSpool(
                     RabbitMQConfig.CAR_TOPIC_EXCHANGE,
                     routingKey,
                     message
@@ -186,7 +198,7 @@ public class CarEventProducer {
             log.info("═══════════════════════════════════════════════════════");
 
             // Routing key is ignored but convention is to pass empty string or null
-            rabbitTemplate.convertAndSend(
+            sendOrSpool(
                     RabbitMQConfig.CAR_FANOUT_EXCHANGE,
                     "",      // Routing key ignored for fanout
                     message
@@ -199,6 +211,27 @@ public class CarEventProducer {
         }
     }
 
+    /**
+     * Publish, or append to the local spool (CarEventSpool) when the broker is unreachable
+     *
+     * While the spool still holds events, new ones are appended behind them instead
+     * of overtaking them; the spool replays everything in order once the broker is back.
+     */
+    private void sendOrSpool(String exchange, String routingKey, CarEventMessage message) {
+        if (carEventSpool.hasPending() && carEventSpool.append(exchange, routingKey, message)) {
+            log.info("📼 Spooled behind earlier undelivered events");
+            return;
+        }
+        try {
+            rabbitTemplate.convertAndSend(exchange, routingKey, message);
+        } catch (AmqpException e) {
+            if (!carEventSpool.append(exchange, routingKey, message)) {
+                throw e;
+            }
+            log.warn("⚠️ Broker unavailable, event spooled for replay: {}", e.getMessage());
+        }
+    }
+
     // ═══════════════════════════════════════════════════════════════════════
     // CONVENIENCE METHODS - Simplified API for common operations
     // ═══════════════════════════════════════════════════════════════════════
@@ -212,6 +245,58 @@ public class CarEventProducer {
         sendToDirectExchange(message, RabbitMQConfig.CAR_CREATED_KEY);
     }
 
+    // ═══════════════════════════════════════════════════════════════════════
+    // RAW PUBLISHING - no per-message logging, for throughput
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * One message = one AMQP message
+     */
+    public void publish(String exchange, String routingKey, CarEventMessage message) {
+        rabbitTemplate.convertAndSend(exchange, routingKey, message);
+    }
+
+    /**
+     * Buffer the message; it is sent with others for the same exchange + routing key
+     * when the batch is full or bennycar.events.batching.linger has passed
+     *
+     * A batch has ONE destination: call flushBatches before switching to another
+     * exchange or routing key. Car events themselves are batched by the outbox
+     * relay (CarEventOutboxRelay); this is the raw path for load tests.
+     */
+    public void publishBatched(String exchange, String routingKey, CarEventMessage message) {
+        batchingRabbitTemplate.convertAndSend(exchange, routingKey, message);
+    }
+
+    /**
+     * Send all buffered batches now instead of waiting for linger
+     */
+    public void flushBatches() {
+        batchingRabbitTemplate.flush();
+    }
+
+    static String exchangeFor(CarEventMessage message) {
+        return switch (message.getEventType()) {
+            case "PRICE_CHANGED", "AVAILABILITY_CHANGED" -> RabbitMQConfig.CAR_TOPIC_EXCHANGE;
+            case CarEventMessage.CHANGED -> RabbitMQConfig.CAR_HEADERS_EXCHANGE;
+            default -> RabbitMQConfig.CAR_DIRECT_EXCHANGE;
+        };
+    }
+
+    static String routingKeyFor(CarEventMessage message) {
+        return switch (message.getEventType()) {
+            case "CREATED" -> RabbitMQConfig.CAR_CREATED_KEY;
+            case "UPDATED" -> RabbitMQConfig.CAR_UPDATED_KEY;
+            case "DELETED" -> RabbitMQConfig.CAR_DELETED_KEY;
+            case "PRICE_CHANGED" -> RabbitMQConfig.CAR_PRICE_CHANGED_KEY;
+            case "AVAILABILITY_CHANGED" -> RabbitMQConfig.CAR_AVAILABILITY_KEY;
+            // Ignored by the headers exchange, but keeps batches (grouped per routing key) free of
+            // messages with different headers - a batch carries the headers of its first message
+            case CarEventMessage.CHANGED -> RabbitMQConfig.CAR_CHANGED_KEY + "." + message.getChanges();
+            default -> throw new IllegalArgumentException("Unknown event type: " + message.getEventType());
+        };
+    }
+
     /**
      * Send CAR UPDATED event
      * Uses direct exchange with specific routing key
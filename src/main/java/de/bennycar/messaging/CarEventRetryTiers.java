@@ -0,0 +1,87 @@
+package de.bennycar.messaging;
+
+import org.springframework.amqp.core.Message;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ═══════════════════════════════════════════════════════════════════════════
+ * CAR EVENT RETRY TIERS - Delayed retries without a requeue hot loop
+ * ═══════════════════════════════════════════════════════════════════════════
+ *
+ * One tier per configured delay (bennycar.events.retry.delays, e.g. 1s,10s,1m):
+ *
+ *   car.retry.1000ms.exchange (fanout) → car.retry.1000ms.queue
+ *       x-message-ttl          = 1000
+ *       x-dead-letter-exchange = ""  (default exchange, no dead-letter routing key)
+ *
+ * A failed message is re-published to the tier exchange with its ORIGIN queue as
+ * routing key. Nobody consumes the tier queue: when the TTL runs out the broker
+ * dead-letters the message with that routing key through the default exchange,
+ * i.e. straight back to the queue it failed on - and adds an x-death entry
+ * (reason "expired", queue = the tier queue).
+ *
+ * ATTEMPTS come from those x-death entries, not from a header we maintain:
+ *   attemptsMade = max(sum of their counts, 1 + deepest tier seen)
+ * The second term keeps the count right even if x-death does not survive the
+ * client-side re-publish. After the last tier the message is parked in the DLQ.
+ *
+ * Queue names contain the delay, so changing the delays declares new tiers
+ * instead of clashing with the arguments of existing queues.
+ *
+ * ═══════════════════════════════════════════════════════════════════════════
+ */
+public class CarEventRetryTiers {
+
+    private final List<Duration> delays;
+    private final List<String> queueNames;
+
+    public CarEventRetryTiers(List<Duration> delays) {
+        if (delays.isEmpty() || delays.stream().anyMatch(delay -> delay.isNegative() || delay.isZero())) {
+            throw new IllegalArgumentException("bennycar.events.retry.delays must be positive, was: " + delays);
+        }
+        this.delays = List.copyOf(delays);
+        this.queueNames = this.delays.stream().map(CarEventRetryTiers::queueName).toList();
+    }
+
+    public int size() {
+        return delays.size();
+    }
+
+    public Duration delay(int tier) {
+        return delays.get(tier);
+    }
+
+    public static String exchangeName(Duration delay) {
+        return "car.retry." + delay.toMillis() + "ms.exchange";
+    }
+
+    public static String queueName(Duration delay) {
+        return "car.retry." + delay.toMillis() + "ms.queue";
+    }
+
+    /**
+     * Retries this message already went through, read from its x-death header
+     */
+    public int attemptsMade(Message message) {
+        List<Map<String, ?>> deaths = message.getMessageProperties().getXDeathHeader();
+        if (deaths == null) {
+            return 0;
+        }
+        long total = 0;
+        int deepest = 0;
+        for (Map<String, ?> death : deaths) {
+            int tier = queueNames.indexOf(String.valueOf(death.get("queue")));
+            if (tier < 0 || !"expired".equals(String.valueOf(death.get("reason")))) {
+                continue;
+            }
+            if (death.get("count") instanceof Number count) {
+                total += count.longValue();
+            }
+            deepest = Math.max(deepest, tier + 1);
+        }
+        return (int) Math.min(Math.max(total, deepest), Integer.MAX_VALUE);
+    }
+}
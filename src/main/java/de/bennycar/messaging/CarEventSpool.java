@@ -0,0 +1,519 @@
+package de.bennycar.messaging;
+
+import de.bennycar.dto.CarEventMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * ═══════════════════════════════════════════════════════════════════════════
+ * CAR EVENT SPOOL - Local write-ahead log for events the broker did not take
+ * ═══════════════════════════════════════════════════════════════════════════
+ *
+ * CarService events are safe in the database outbox. Events sent directly by
+ * CarEventProducer (sendToDirectExchange / sendToTopicExchange / ...) have no
+ * such backing: when RabbitMQ is down they land here instead of being dropped.
+ *
+ * HAPPY PATH: spool empty → the producer publishes directly, the spool is not
+ * touched. Once anything is spooled, new events are appended behind it so the
+ * replay keeps their order.
+ *
+ * FILES: dir/spool-<sequence>.seg, each segment-size bytes, memory-mapped.
+ * Appending is a copy into the mapping. A full segment rotates to the next one;
+ * fully replayed segments are deleted.
+ *
+ *   record = int    payload length   (written LAST - 0 means "no record here")
+ *            byte   state            (0 = pending, 1 = sent)
+ *            int    CRC32 of payload
+ *            bytes  payload: exchange, routing key, CarEventBinaryCodec event
+ *
+ * A crash mid-append leaves length 0, so the torn record is never replayed.
+ *
+ * FSYNC (bennycar.spool.fsync):
+ *   always   - force the mapping after every append (survives power loss, slowest)
+ *   interval - force every fsync-interval (default; survives a JVM crash at once,
+ *              power loss up to one interval)
+ *   never    - leave it to the OS
+ *
+ * REPLAY: one thread, woken when a broker connection is (re)created and every
+ * retry-interval. Records are published in order, at most replay-rate per
+ * second, with publisher confirms; only confirmed records are marked sent.
+ * A record can be published twice if the process dies between confirm and
+ * mark - at-least-once, like the outbox.
+ *
+ * Connection failures and nacks keep a record pending, and the replay pauses
+ * there. A record the broker keeps returning (no binding for its exchange and
+ * routing key) is logged and marked sent instead: retrying cannot route it, and
+ * it would hold back every event spooled behind it for good.
+ *
+ * Config (bennycar.spool.*): enabled, dir, segment-size, fsync, fsync-interval,
+ *                            replay-rate, retry-interval
+ *
+ * ═══════════════════════════════════════════════════════════════════════════
+ */
+@Component
+public class CarEventSpool implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(CarEventSpool.class);
+
+    private static final int RECORD_HEADER = Integer.BYTES + 1 + Integer.BYTES;
+    private static final byte PENDING = 0;
+    private static final byte SENT = 1;
+
+    private enum FsyncPolicy { ALWAYS, INTERVAL, NEVER }
+
+    private record SpooledEvent(Segment segment, int position, String exchange, String routingKey,
+                                CarEventMessage event) {
+    }
+
+    private static final class Segment {
+        final long sequence;
+        final Path path;
+        final MappedByteBuffer buffer;
+        int writePosition;
+        int readPosition;
+
+        Segment(long sequence, Path path, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+
+    private final PublisherConfirmTracker confirmTracker;
+    private final ConnectionFactory connectionFactory;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsync;
+    private final Duration fsyncInterval;
+    private final int replayRate;
+    private final Duration retryInterval;
+
+    /** Oldest first; the last one is written to. Guarded by lock, held only for short, non-blocking steps */
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final Object lock = new Object();
+    /** One replay at a time (scheduled retries and connection wake-ups may overlap) */
+    private final ReentrantLock replayLock = new ReentrantLock();
+    private final AtomicLong pending = new AtomicLong();
+    private volatile boolean dirty;
+
+    private volatile ScheduledExecutorService scheduler;
+
+    public CarEventSpool(PublisherConfirmTracker confirmTracker,
+                         ConnectionFactory connectionFactory,
+                         @Value("${bennycar.spool.enabled:true}") boolean enabled,
+                         @Value("${bennycar.spool.dir:${java.io.tmpdir}/bennycar-spool}") Path directory,
+                         @Value("${bennycar.spool.segment-size:67108864}") int segmentSize,
+                         @Value("${bennycar.spool.fsync:interval}") String fsync,
+                         @Value("${bennycar.spool.fsync-interval:100ms}") Duration fsyncInterval,
+                         @Value("${bennycar.spool.replay-rate:1000}") int replayRate,
+                         @Value("${bennycar.spool.retry-interval:1s}") Duration retryInterval) {
+        this.confirmTracker = confirmTracker;
+        this.connectionFactory = connectionFactory;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        if (replayRate <= 0) {
+            throw new IllegalArgumentException("bennycar.spool.replay-rate must be positive, was: " + replayRate);
+        }
+        this.fsync = FsyncPolicy.valueOf(fsync.toUpperCase());
+        this.fsyncInterval = fsyncInterval;
+        this.replayRate = replayRate;
+        this.retryInterval = retryInterval;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // LIFECYCLE - recover existing segments, start replay and fsync threads
+    // ═══════════════════════════════════════════════════════════════════════
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            log.info("Event spool disabled");
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open event spool in " + directory, e);
+        }
+
+        scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "event-spool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::replay, 0, retryInterval.toMillis(), TimeUnit.MILLISECONDS);
+        if (fsync == FsyncPolicy.INTERVAL) {
+            scheduler.scheduleWithFixedDelay(this::forceIfDirty, fsyncInterval.toMillis(),
+                    fsyncInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        connectionFactory.addConnectionListener(connection -> wakeUp());
+        log.info("Event spool started in {} ({} pending events)", directory, pending.get());
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService current = scheduler;
+        if (current == null) {
+            return;
+        }
+        scheduler = null;
+        current.shutdown();
+        try {
+            current.awaitTermination(retryInterval.toMillis() * 2, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        forceAll();
+        log.info("Event spool stopped ({} pending events)", pending.get());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * Start before the AMQP listener containers, stop after them
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE + 1000;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // APPEND
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * True while spooled events wait for replay - new events must queue behind them
+     */
+    public boolean hasPending() {
+        return pending.get() > 0;
+    }
+
+    /**
+     * Capture an event the broker could not take
+     *
+     * @return false if the spool is disabled or not running (the caller drops the event as before)
+     */
+    public boolean append(String exchange, String routingKey, CarEventMessage event) {
+        if (scheduler == null) {
+            return false;
+        }
+        byte[] payload = encode(exchange, routingKey, event);
+        int recordSize = RECORD_HEADER + payload.length;
+        if (recordSize + Integer.BYTES > segmentSize) {
+            throw new IllegalArgumentException("Event of " + payload.length + " bytes exceeds the spool segment size");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        synchronized (lock) {
+            Segment segment = segments.peekLast();
+            // Keep 4 zero bytes after the last record as end marker
+            if (segment == null || segment.writePosition + recordSize + Integer.BYTES > segmentSize) {
+                segment = openSegment(segment == null ? 1 : segment.sequence + 1);
+                segments.addLast(segment);
+            }
+            int position = segment.writePosition;
+            MappedByteBuffer buffer = segment.buffer;
+            buffer.put(position + Integer.BYTES, PENDING);
+            buffer.putInt(position + Integer.BYTES + 1, (int) crc.getValue());
+            buffer.put(position + RECORD_HEADER, payload);
+            buffer.putInt(position, payload.length);       // commit marker last
+            segment.writePosition = position + recordSize;
+            pending.incrementAndGet();
+
+            if (fsync == FsyncPolicy.ALWAYS) {
+                buffer.force(position, recordSize);
+            } else {
+                dirty = true;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] encode(String exchange, String routingKey, CarEventMessage event) {
+        byte[] exchangeBytes = exchange.getBytes(StandardCharsets.UTF_8);
+        byte[] routingKeyBytes = routingKey.getBytes(StandardCharsets.UTF_8);
+        byte[] eventBytes = CarEventBinaryCodec.encode(event);
+        byte[] payload = new byte[2 + exchangeBytes.length + 2 + routingKeyBytes.length + eventBytes.length];
+        ByteBuffer out = ByteBuffer.wrap(payload);
+        out.putShort((short) exchangeBytes.length).put(exchangeBytes);
+        out.putShort((short) routingKeyBytes.length).put(routingKeyBytes);
+        out.put(eventBytes);
+        return payload;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // REPLAY
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private void wakeUp() {
+        ScheduledExecutorService current = scheduler;
+        if (current != null && hasPending()) {
+            current.execute(this::replay);
+        }
+    }
+
+    /**
+     * Publish pending records in order until the spool is empty or the broker fails again
+     */
+    private void replay() {
+        if (!hasPending() || scheduler == null || !replayLock.tryLock()) {
+            return;
+        }
+        int chunk = Math.max(1, Math.min(100, replayRate));
+        long nanosPerChunk = TimeUnit.SECONDS.toNanos(1) * chunk / replayRate;
+        int replayed = 0;
+        try {
+            List<SpooledEvent> batch;
+            while (!(batch = readPending(chunk)).isEmpty() && scheduler != null) {
+                long started = System.nanoTime();
+
+                List<CompletableFuture<Void>> confirms = new ArrayList<>(batch.size());
+                for (SpooledEvent spooled : batch) {
+                    confirms.add(confirmTracker.send(spooled.exchange(), spooled.routingKey(), spooled.event()));
+                }
+                CompletableFuture.allOf(confirms.stream()
+                                .map(confirm -> confirm.exceptionally(failure -> null))
+                                .toArray(CompletableFuture[]::new))
+                        .get(retryInterval.toMillis() * 10, TimeUnit.MILLISECONDS);
+
+                Throwable failure = null;
+                for (int i = 0; i < batch.size(); i++) {
+                    SpooledEvent spooled = batch.get(i);
+                    Throwable error = confirms.get(i).handle((confirmed, e) -> e).join();
+                    if (error instanceof CompletionException wrapped && wrapped.getCause() != null) {
+                        error = wrapped.getCause();
+                    }
+                    if (error == null) {
+                        markSent(spooled);
+                        replayed++;
+                    } else if (error instanceof PublisherConfirmTracker.UnroutableException) {
+                        log.error("❌ Dropping unroutable spool record {}@{} ({}/{}): {}",
+                                spooled.segment().path.getFileName(), spooled.position(),
+                                spooled.exchange(), spooled.routingKey(), spooled.event());
+                        markSent(spooled);
+                    } else if (failure == null) {
+                        failure = error;
+                    }
+                }
+                if (failure != null) {
+                    throw new AmqpException(failure.getMessage(), failure);
+                }
+
+                // Replay-rate limit
+                long remaining = nanosPerChunk - (System.nanoTime() - started);
+                if (remaining > 0) {
+                    TimeUnit.NANOSECONDS.sleep(remaining);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Unconfirmed records stay pending; the next attempt starts with them again
+            log.warn("Spool replay paused after {} events, {} pending: {}", replayed, pending.get(), e.getMessage());
+        } finally {
+            rewindReaders();
+            replayLock.unlock();
+        }
+        if (replayed > 0) {
+            log.info("Spool replayed {} events, {} pending", replayed, pending.get());
+        }
+    }
+
+    /**
+     * Next pending records in append order (advances the read positions)
+     */
+    private List<SpooledEvent> readPending(int max) {
+        List<SpooledEvent> batch = new ArrayList<>(max);
+        synchronized (lock) {
+            readPending(max, batch);
+        }
+        return batch;
+    }
+
+    private void readPending(int max, List<SpooledEvent> batch) {
+        for (Segment segment : segments) {
+            while (batch.size() < max && segment.readPosition < segment.writePosition) {
+                int position = segment.readPosition;
+                int length = segment.buffer.getInt(position);
+                segment.readPosition = position + RECORD_HEADER + length;
+                if (segment.buffer.get(position + Integer.BYTES) == PENDING) {
+                    SpooledEvent spooled = decode(segment, position, length);
+                    if (spooled != null) {
+                        batch.add(spooled);
+                    }
+                }
+            }
+            if (batch.size() == max) {
+                break;
+            }
+        }
+    }
+
+    private SpooledEvent decode(Segment segment, int position, int length) {
+        byte[] payload = new byte[length];
+        segment.buffer.get(position + RECORD_HEADER, payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        try {
+            if ((int) crc.getValue() != segment.buffer.getInt(position + Integer.BYTES + 1)) {
+                throw new IllegalArgumentException("CRC mismatch");
+            }
+            ByteBuffer in = ByteBuffer.wrap(payload);
+            byte[] exchange = new byte[in.getShort()];
+            in.get(exchange);
+            byte[] routingKey = new byte[in.getShort()];
+            in.get(routingKey);
+            byte[] event = new byte[in.remaining()];
+            in.get(event);
+            return new SpooledEvent(segment, position, new String(exchange, StandardCharsets.UTF_8),
+                    new String(routingKey, StandardCharsets.UTF_8), CarEventBinaryCodec.decode(event));
+        } catch (RuntimeException e) {
+            // Replaying cannot fix a corrupt record
+            log.error("❌ Dropping corrupt spool record {}@{}: {}", segment.path.getFileName(), position, e.getMessage());
+            segment.buffer.put(position + Integer.BYTES, SENT);
+            pending.decrementAndGet();
+            return null;
+        }
+    }
+
+    private void markSent(SpooledEvent spooled) {
+        spooled.segment().buffer.put(spooled.position() + Integer.BYTES, SENT);
+        pending.decrementAndGet();
+        dirty = true;
+    }
+
+    /**
+     * Drop fully replayed segments and restart reading at the first pending record
+     */
+    private void rewindReaders() {
+        synchronized (lock) {
+            while (segments.size() > 1 && isFullyReplayed(segments.peekFirst())) {
+                deleteSegment(segments.pollFirst());
+            }
+            for (Segment segment : segments) {
+                segment.readPosition = 0;
+            }
+        }
+    }
+
+    private boolean isFullyReplayed(Segment segment) {
+        for (int position = 0; position < segment.writePosition; ) {
+            int length = segment.buffer.getInt(position);
+            if (segment.buffer.get(position + Integer.BYTES) == PENDING) {
+                return false;
+            }
+            position += RECORD_HEADER + length;
+        }
+        return true;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // SEGMENT FILES
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Re-open existing segments after a restart and count their pending records
+     */
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().matches("spool-\\d+\\.seg"))
+                    .sorted()
+                    .toList();
+        }
+        for (Path path : files) {
+            String name = path.getFileName().toString();
+            long sequence = Long.parseLong(name.substring("spool-".length(), name.length() - ".seg".length()));
+            Segment segment = openSegment(sequence);
+
+            int position = 0;
+            while (position + RECORD_HEADER <= segmentSize) {
+                int length = segment.buffer.getInt(position);
+                if (length <= 0 || position + RECORD_HEADER + length > segmentSize) {
+                    break;
+                }
+                if (segment.buffer.get(position + Integer.BYTES) == PENDING) {
+                    pending.incrementAndGet();
+                }
+                position += RECORD_HEADER + length;
+            }
+            segment.writePosition = position;
+            synchronized (lock) {
+                segments.addLast(segment);
+            }
+        }
+        rewindReaders();
+    }
+
+    private Segment openSegment(long sequence) {
+        Path path = directory.resolve(String.format("spool-%020d.seg", sequence));
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            return new Segment(sequence, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open spool segment " + path, e);
+        }
+    }
+
+    private void deleteSegment(Segment segment) {
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            log.warn("Cannot delete replayed spool segment {}: {}", segment.path, e.getMessage());
+        }
+    }
+
+    private void forceIfDirty() {
+        if (dirty) {
+            dirty = false;
+            forceAll();
+        }
+    }
+
+    private void forceAll() {
+        List<Segment> open;
+        synchronized (lock) {
+            open = List.copyOf(segments);
+        }
+        // force() outside the lock - appends go on while the pages are written
+        open.forEach(segment -> segment.buffer.force());
+    }
+}
@@ -0,0 +1,198 @@
+package de.bennycar.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ═══════════════════════════════════════════════════════════════════════════
+ * PUBLISHER CONFIRM TRACKER - Asynchronous, correlated publisher confirms
+ * ═══════════════════════════════════════════════════════════════════════════
+ *
+ * A plain convertAndSend is fire-and-forget: the broker may drop the message
+ * (nack) or find no queue for it (return) and the sender never knows.
+ *
+ * With spring.rabbitmq.publisher-confirm-type: correlated and a mandatory
+ * RabbitTemplate every send(...) gets a correlation id:
+ *
+ *   send()  → PENDING map[correlationId] = {message, attempt, start, future}
+ *   ack     → remove, record latency, complete the future
+ *   nack /  → remove, re-publish after retry-backoff × attempt
+ *   return    (up to max-attempts), then fail the future - with an
+ *             UnroutableException if the last attempt was returned
+ *
+ * The caller never blocks on the broker: thousands of publishes can be in
+ * flight at once and are confirmed in whatever order the broker acks them.
+ * A closed channel nacks everything still pending on it, so nothing stays
+ * in the map forever.
+ *
+ * Metrics (Micrometer, /actuator/metrics):
+ *   car.events.publish.in.flight          publishes waiting for their confirm
+ *   car.events.publish.confirm.latency    send → ack (p50/p99)
+ *   car.events.publish.nacked / returned / retried / failed
+ *
+ * Config (bennycar.events.publish.*): max-attempts, retry-backoff
+ *
+ * ═══════════════════════════════════════════════════════════════════════════
+ */
+@Component
+public class PublisherConfirmTracker implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PublisherConfirmTracker.class);
+
+    /**
+     * The broker kept returning the message: no queue is bound for its exchange and
+     * routing key. Publishing it again does not help until the bindings change.
+     */
+    public static class UnroutableException extends AmqpException {
+
+        public UnroutableException(String message) {
+            super(message);
+        }
+    }
+
+    private record Pending(String exchange, String routingKey, Object payload, int attempt, long startNanos,
+                           CompletableFuture<Void> future) {
+    }
+
+    private final RabbitTemplate rabbitTemplate;
+    private final ConcurrentMap<String, Pending> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService retryScheduler;
+
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+
+    private final Timer confirmLatency;
+    private final Counter nacked;
+    private final Counter returned;
+    private final Counter retried;
+    private final Counter failed;
+
+    public PublisherConfirmTracker(RabbitTemplate rabbitTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${bennycar.events.publish.max-attempts:3}") int maxAttempts,
+                                   @Value("${bennycar.events.publish.retry-backoff:100ms}") Duration retryBackoff) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "publish-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        rabbitTemplate.setConfirmCallback(this::onConfirm);
+        rabbitTemplate.setReturnsCallback(this::onReturn);
+
+        meterRegistry.gaugeMapSize("car.events.publish.in.flight", Tags.empty(), pending);
+        this.confirmLatency = Timer.builder("car.events.publish.confirm.latency")
+                .description("Time from publish to broker ack")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.nacked = meterRegistry.counter("car.events.publish.nacked");
+        this.returned = meterRegistry.counter("car.events.publish.returned");
+        this.retried = meterRegistry.counter("car.events.publish.retried");
+        this.failed = meterRegistry.counter("car.events.publish.failed");
+    }
+
+    /**
+     * Publish and track the confirm
+     *
+     * @return completes when the broker acked the message and routed it to at least one queue;
+     *         fails once max-attempts nacks/returns are used up
+     */
+    public CompletableFuture<Void> send(String exchange, String routingKey, Object payload) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        publish(new Pending(exchange, routingKey, payload, 1, System.nanoTime(), future));
+        return future;
+    }
+
+    public int inFlight() {
+        return pending.size();
+    }
+
+    private void publish(Pending message) {
+        String correlationId = UUID.randomUUID().toString();
+        pending.put(correlationId, message);
+        try {
+            rabbitTemplate.convertAndSend(message.exchange(), message.routingKey(), message.payload(),
+                    new CorrelationData(correlationId));
+        } catch (AmqpException e) {
+            // Never reached the channel - no confirm will come for this id
+            pending.remove(correlationId);
+            retryOrFail(message, e.getMessage(), false);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // CALLBACKS - run on the AMQP connection thread, so they never publish
+    // directly; retries go through retryScheduler
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private void onConfirm(CorrelationData correlationData, boolean ack, String cause) {
+        if (correlationData == null) {
+            return;     // untracked convertAndSend
+        }
+        Pending message = pending.remove(correlationData.getId());
+        if (message == null) {
+            return;
+        }
+        if (!ack) {
+            nacked.increment();
+            retryOrFail(message, "nack: " + cause, false);
+        } else if (correlationData.getReturned() != null) {
+            ReturnedMessage returnedMessage = correlationData.getReturned();
+            retryOrFail(message, "returned: " + returnedMessage.getReplyText(), true);
+        } else {
+            confirmLatency.record(System.nanoTime() - message.startNanos(), TimeUnit.NANOSECONDS);
+            message.future().complete(null);
+        }
+    }
+
+    private void onReturn(ReturnedMessage returnedMessage) {
+        // The ack for this message follows; the retry decision is taken in onConfirm()
+        returned.increment();
+        log.warn("Message returned as unroutable: exchange={}, routingKey={}, reply={}",
+                returnedMessage.getExchange(), returnedMessage.getRoutingKey(), returnedMessage.getReplyText());
+    }
+
+    private void retryOrFail(Pending message, String reason, boolean unroutable) {
+        if (message.attempt() >= maxAttempts || retryScheduler.isShutdown()) {
+            failed.increment();
+            String failure = "Publish to " + message.exchange() + "/" + message.routingKey()
+                    + " failed after " + message.attempt() + " attempts: " + reason;
+            message.future().completeExceptionally(
+                    unroutable ? new UnroutableException(failure) : new AmqpException(failure));
+            return;
+        }
+        retried.increment();
+        Pending next = new Pending(message.exchange(), message.routingKey(), message.payload(),
+                message.attempt() + 1, message.startNanos(), message.future());
+        retryScheduler.schedule(() -> publish(next),
+                retryBackoff.toMillis() * message.attempt(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        retryScheduler.shutdownNow();
+    }
+}
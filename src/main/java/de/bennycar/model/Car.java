@@ -1,5 +1,6 @@
 package de.bennycar.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import de.bennycar.enums.BodyType;
 import de.bennycar.enums.CarCondition;
 import de.bennycar.enums.FuelType;
@@ -9,10 +10,12 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "cars")
-public class Car {
+public class Car implements Versioned {
 
+    // Sequence + pooled optimizer: ids are assigned before INSERT, so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cars_seq")
+    @SequenceGenerator(name = "cars_seq", sequenceName = "cars_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -63,6 +66,15 @@ public class Car {
 
     private LocalDateTime updatedAt;
 
+    /**
+     * Optimistic lock: Hibernate issues "UPDATE ... WHERE id = ? AND version = ?"
+     * and fails instead of silently overwriting a concurrent change.
+     * Server-managed, clients read it through the ETag.
+     */
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -75,6 +87,7 @@ public class Car {
     }
 
     // Getters and Setters
+    @Override
     public Long getId() {
         return id;
     }
@@ -211,6 +224,7 @@ public class Car {
         this.createdAt = createdAt;
     }
 
+    @Override
     public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
@@ -218,4 +232,13 @@ public class Car {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    @Override
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
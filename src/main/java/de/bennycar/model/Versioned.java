@@ -0,0 +1,20 @@
+package de.bennycar.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Anything that identifies one state of a car: its id, its optimistic-lock version
+ * and the time of its last change.
+ *
+ * Implemented by the Car entity and by the lightweight CarVersion projection, so
+ * HTTP validators (ETag / Last-Modified) can be derived from either without
+ * knowing which one was loaded.
+ */
+public interface Versioned {
+
+    Long getId();
+
+    Long getVersion();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,22 @@
+package de.bennycar.repository;
+
+import de.bennycar.dto.CarPatch;
+import de.bennycar.dto.CarPatchResult;
+
+import java.util.Optional;
+
+/**
+ * Custom repository fragment for partial updates that bypass the persistence context
+ */
+public interface CarPatchOperations {
+
+    /**
+     * Update only the non-null fields of {@code changes} in ONE statement
+     * (at least one must be set - see CarPatch.isEmpty)
+     *
+     * @param expectedVersion apply only if the row still has this version (null = unconditional)
+     * @return the updated row with the previous vin/price/availability,
+     *         empty if the id does not exist or the version did not match
+     */
+    Optional<CarPatchResult> patch(Long id, CarPatch changes, Long expectedVersion);
+}
@@ -0,0 +1,123 @@
+package de.bennycar.repository;
+
+import de.bennycar.dto.CarPatch;
+import de.bennycar.dto.CarPatchResult;
+import de.bennycar.enums.BodyType;
+import de.bennycar.enums.CarCondition;
+import de.bennycar.enums.FuelType;
+import de.bennycar.enums.TransmissionType;
+import de.bennycar.model.Car;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * PATCH as a single round trip:
+ *
+ *   UPDATE cars c SET <supplied columns>, updated_at = :updatedAt, version = c.version + 1
+ *   FROM (SELECT id, vin, price, is_available FROM cars WHERE id = :id
+ *         [AND version = :expectedVersion] FOR UPDATE) old
+ *   WHERE c.id = old.id
+ *   RETURNING c.*, old.vin, old.price, old.is_available
+ *
+ * RETURNING only sees the new row, so the pre-image comes from the locked sub-select
+ * of the same statement. No entity load, no dirty check, the row lock is held for
+ * one statement instead of select + flush.
+ */
+class CarPatchOperationsImpl implements CarPatchOperations {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    CarPatchOperationsImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<CarPatchResult> patch(Long id, CarPatch changes, Long expectedVersion) {
+        if (changes.isEmpty()) {
+            throw new IllegalArgumentException("Patch for car " + id + " has no fields");
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("id", id);
+        List<String> assignments = new ArrayList<>();
+
+        set(assignments, params, "name", changes.getName());
+        set(assignments, params, "vin", changes.getVin());
+        set(assignments, params, "brand", changes.getBrand());
+        set(assignments, params, "model", changes.getModel());
+        set(assignments, params, "year", changes.getYear());
+        set(assignments, params, "color", changes.getColor());
+        set(assignments, params, "transmission", name(changes.getTransmission()));
+        set(assignments, params, "fuel_type", name(changes.getFuelType()));
+        set(assignments, params, "body_type", name(changes.getBodyType()));
+        set(assignments, params, "mileage", changes.getMileage());
+        set(assignments, params, "price", changes.getPrice());
+        set(assignments, params, "description", changes.getDescription());
+        set(assignments, params, "condition", name(changes.getCondition()));
+        set(assignments, params, "location", changes.getLocation());
+        set(assignments, params, "is_available", changes.getIsAvailable());
+        set(assignments, params, "updated_at", LocalDateTime.now());
+        assignments.add("version = c.version + 1");
+
+        String versionCheck = "";
+        if (expectedVersion != null) {
+            versionCheck = " AND version = :expectedVersion";
+            params.addValue("expectedVersion", expectedVersion);
+        }
+
+        String sql = "UPDATE cars c SET " + String.join(", ", assignments)
+                + " FROM (SELECT id, vin, price, is_available FROM cars WHERE id = :id" + versionCheck
+                + " FOR UPDATE) old"
+                + " WHERE c.id = old.id"
+                + " RETURNING c.*, old.vin AS old_vin, old.price AS old_price, old.is_available AS old_available";
+
+        List<CarPatchResult> rows = jdbcTemplate.query(sql, params, (rs, rowNum) ->
+                new CarPatchResult(mapCar(rs), rs.getString("old_vin"),
+                        rs.getDouble("old_price"), rs.getBoolean("old_available")));
+        return rows.stream().findFirst();
+    }
+
+    private static void set(List<String> assignments, MapSqlParameterSource params, String column, Object value) {
+        if (value != null) {
+            assignments.add(column + " = :" + column);
+            params.addValue(column, value);
+        }
+    }
+
+    private static String name(Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+
+    private static Car mapCar(ResultSet rs) throws SQLException {
+        Car car = new Car();
+        car.setId(rs.getLong("id"));
+        car.setName(rs.getString("name"));
+        car.setVin(rs.getString("vin"));
+        car.setBrand(rs.getString("brand"));
+        car.setModel(rs.getString("model"));
+        car.setYear(rs.getInt("year"));
+        car.setColor(rs.getString("color"));
+        car.setTransmission(valueOf(TransmissionType.class, rs.getString("transmission")));
+        car.setFuelType(valueOf(FuelType.class, rs.getString("fuel_type")));
+        car.setBodyType(valueOf(BodyType.class, rs.getString("body_type")));
+        car.setMileage(rs.getObject("mileage", Integer.class));
+        car.setPrice(rs.getDouble("price"));
+        car.setDescription(rs.getString("description"));
+        car.setCondition(valueOf(CarCondition.class, rs.getString("condition")));
+        car.setLocation(rs.getString("location"));
+        car.setIsAvailable(rs.getBoolean("is_available"));
+        car.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        car.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+        car.setVersion(rs.getLong("version"));
+        return car;
+    }
+
+    private static <E extends Enum<E>> E valueOf(Class<E> type, String value) {
+        return value == null ? null : Enum.valueOf(type, value);
+    }
+}
@@ -1,27 +1,88 @@
 package de.bennycar.repository;
 
+import de.bennycar.dto.CarVersion;
 import de.bennycar.model.Car;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CarRepository extends JpaRepository<Car, Long> {
+public interface CarRepository extends JpaRepository<Car, Long>, JpaSpecificationExecutor<Car>,
+        CarPatchOperations, CarRepriceOperations {
 
     Optional<Car> findByVin(String vin);
 
-    List<Car> findByBrand(String brand);
+    /**
+     * Which of these VINs already exist - one query for a whole batch
+     */
+    @Query("select c.vin from Car c where c.vin in :vins")
+    List<String> findExistingVins(@Param("vins") Collection<String> vins);
 
-    List<Car> findByModel(String model);
+    // Version-only lookups (id + version + updatedAt, see CarVersion) for conditional GETs
 
-    List<Car> findByBrandAndModel(String brand, String model);
+    Optional<CarVersion> findVersionById(Long id);
 
-    List<Car> findByIsAvailable(Boolean isAvailable);
+    Optional<CarVersion> findVersionByVin(String vin);
 
-    List<Car> findByPriceBetween(Double minPrice, Double maxPrice);
+    // Keyset pagination: every list finder seeks past the last seen id.
+    // Callers pass a Pageable sorted by id with limit = page size + 1 (no count query is issued).
+    // The type parameter selects the projection: Car.class for entities,
+    // CarVersion.class for the version-only SELECT used by conditional GETs.
 
-    List<Car> findByYearGreaterThanEqual(Integer year);
-}
+    <T> List<T> findByIdGreaterThan(Long id, Pageable pageable, Class<T> type);
+
+    <T> List<T> findByBrandAndIdGreaterThan(String brand, Long id, Pageable pageable, Class<T> type);
+
+    <T> List<T> findByModelAndIdGreaterThan(String model, Long id, Pageable pageable, Class<T> type);
+
+    <T> List<T> findByBrandAndModelAndIdGreaterThan(String brand, String model, Long id,
+                                                    Pageable pageable, Class<T> type);
 
+    <T> List<T> findByIsAvailableAndIdGreaterThan(Boolean isAvailable, Long id, Pageable pageable, Class<T> type);
+
+    <T> List<T> findByPriceBetweenAndIdGreaterThan(Double minPrice, Double maxPrice, Long id,
+                                                   Pageable pageable, Class<T> type);
+
+    <T> List<T> findByYearGreaterThanEqualAndIdGreaterThan(Integer year, Long id, Pageable pageable, Class<T> type);
+
+    /**
+     * Full-table export as a lazily consumed Stream (server-side cursor).
+     * Every filter is optional - a null parameter disables its predicate.
+     *
+     * Must be consumed inside a transaction and closed by the caller; PostgreSQL only
+     * streams with a fetch size when autocommit is off, otherwise the driver
+     * buffers the whole result set.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("""
+            select c from Car c
+            where (:brand is null or c.brand = :brand)
+              and (:model is null or c.model = :model)
+              and (:isAvailable is null or c.isAvailable = :isAvailable)
+              and (:minPrice is null or c.price >= :minPrice)
+              and (:maxPrice is null or c.price <= :maxPrice)
+              and (:minYear is null or c.year >= :minYear)
+            order by c.id
+            """)
+    Stream<Car> streamForExport(@Param("brand") String brand,
+                                @Param("model") String model,
+                                @Param("isAvailable") Boolean isAvailable,
+                                @Param("minPrice") Double minPrice,
+                                @Param("maxPrice") Double maxPrice,
+                                @Param("minYear") Integer minYear);
+}
@@ -0,0 +1,20 @@
+package de.bennycar.repository;
+
+import de.bennycar.dto.CarPriceChange;
+import de.bennycar.dto.CarRepriceRequest;
+
+import java.util.function.Consumer;
+
+/**
+ * Custom repository fragment for set-based bulk price adjustments
+ */
+public interface CarRepriceOperations {
+
+    /**
+     * Adjust the price of every matching car in ONE statement
+     *
+     * @param changes receives each car whose price actually changed, with old and new price
+     * @return number of cars updated
+     */
+    int reprice(CarRepriceRequest request, Consumer<CarPriceChange> changes);
+}
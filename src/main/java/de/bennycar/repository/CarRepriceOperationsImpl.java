@@ -0,0 +1,79 @@
+package de.bennycar.repository;
+
+import de.bennycar.dto.CarPriceChange;
+import de.bennycar.dto.CarRepriceRequest;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Bulk repricing as a single statement:
+ *
+ *   UPDATE cars c SET price = old.new_price, updated_at = :updatedAt, version = c.version + 1
+ *   FROM (SELECT id, price, <new price> AS new_price FROM cars WHERE <filters> FOR UPDATE) old
+ *   WHERE c.id = old.id AND old.new_price <> old.price
+ *   RETURNING c.id, c.vin, ..., old.price, c.price
+ *
+ * New prices are rounded to cents and never negative. Cars whose price would not
+ * change are not written, so they keep their version and produce no event.
+ */
+class CarRepriceOperationsImpl implements CarRepriceOperations {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    CarRepriceOperationsImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int reprice(CarRepriceRequest request, Consumer<CarPriceChange> changes) {
+        MapSqlParameterSource params = new MapSqlParameterSource("updatedAt", LocalDateTime.now());
+
+        String newPrice;
+        if (request.getPercent() != null) {
+            newPrice = "price * (1 + :percent / 100.0)";
+            params.addValue("percent", request.getPercent());
+        } else {
+            newPrice = "price + :amount";
+            params.addValue("amount", request.getAmount());
+        }
+
+        List<String> filters = new ArrayList<>();
+        filter(filters, params, "brand = :brand", "brand", request.getBrand());
+        filter(filters, params, "model = :model", "model", request.getModel());
+        filter(filters, params, "year >= :minYear", "minYear", request.getMinYear());
+        filter(filters, params, "year <= :maxYear", "maxYear", request.getMaxYear());
+        filter(filters, params, "condition = :condition", "condition",
+                request.getCondition() == null ? null : request.getCondition().name());
+        filter(filters, params, "is_available = :available", "available", request.getAvailable());
+
+        String sql = "UPDATE cars c SET price = old.new_price, updated_at = :updatedAt, version = c.version + 1"
+                + " FROM (SELECT id, price,"
+                + " GREATEST(round((" + newPrice + ")::numeric, 2), 0)::double precision AS new_price"
+                + " FROM cars WHERE " + String.join(" AND ", filters) + " FOR UPDATE) old"
+                + " WHERE c.id = old.id AND old.new_price <> old.price"
+                + " RETURNING c.id, c.vin, c.brand, c.model, c.is_available, old.price AS old_price, c.price";
+
+        int[] updated = {0};
+        jdbcTemplate.query(sql, params, (RowCallbackHandler) rs -> {
+            updated[0]++;
+            changes.accept(new CarPriceChange(rs.getLong("id"), rs.getString("vin"), rs.getString("brand"),
+                    rs.getString("model"), rs.getDouble("old_price"), rs.getDouble("price"),
+                    rs.getBoolean("is_available")));
+        });
+        return updated[0];
+    }
+
+    private static void filter(List<String> filters, MapSqlParameterSource params,
+                               String predicate, String name, Object value) {
+        if (value != null) {
+            filters.add(predicate);
+            params.addValue(name, value);
+        }
+    }
+}
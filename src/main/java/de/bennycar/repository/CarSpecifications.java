@@ -0,0 +1,71 @@
+package de.bennycar.repository;
+
+import de.bennycar.dto.CarSearchCriteria;
+import de.bennycar.model.Car;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * JPA Specifications for the dynamic car search.
+ *
+ * One Specification turns a CarSearchCriteria into a single WHERE clause, so any
+ * combination of filters runs as one SQL query instead of one derived finder per combination.
+ */
+public final class CarSpecifications {
+
+    private CarSpecifications() {
+    }
+
+    public static Specification<Car> matching(CarSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (criteria.getBrand() != null) {
+                predicates.add(cb.equal(root.get("brand"), criteria.getBrand()));
+            }
+            if (criteria.getModel() != null) {
+                predicates.add(cb.equal(root.get("model"), criteria.getModel()));
+            }
+            if (criteria.getMinYear() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("year"), criteria.getMinYear()));
+            }
+            if (criteria.getMaxYear() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("year"), criteria.getMaxYear()));
+            }
+            if (criteria.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), criteria.getMinPrice()));
+            }
+            if (criteria.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), criteria.getMaxPrice()));
+            }
+            if (criteria.getMaxMileage() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("mileage"), criteria.getMaxMileage()));
+            }
+            if (criteria.getFuelType() != null) {
+                predicates.add(cb.equal(root.get("fuelType"), criteria.getFuelType()));
+            }
+            if (criteria.getBodyType() != null) {
+                predicates.add(cb.equal(root.get("bodyType"), criteria.getBodyType()));
+            }
+            if (criteria.getTransmission() != null) {
+                predicates.add(cb.equal(root.get("transmission"), criteria.getTransmission()));
+            }
+            if (criteria.getCondition() != null) {
+                predicates.add(cb.equal(root.get("condition"), criteria.getCondition()));
+            }
+            if (criteria.getLocation() != null && !criteria.getLocation().isBlank()) {
+                predicates.add(cb.like(cb.lower(root.get("location")),
+                        criteria.getLocation().toLowerCase(Locale.ROOT) + "%"));
+            }
+            if (criteria.getAvailable() != null) {
+                predicates.add(cb.equal(root.get("isAvailable"), criteria.getAvailable()));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -0,0 +1,208 @@
+package de.bennycar.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import de.bennycar.model.Car;
+import de.bennycar.repository.CarRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ═══════════════════════════════════════════════════════════════════════════
+ * AVAILABLE CARS SNAPSHOT - Pre-encoded response for the available inventory
+ * ═══════════════════════════════════════════════════════════════════════════
+ *
+ * The available inventory is read far more often than it changes, so instead of
+ * query + serialize per request we keep the finished response bytes:
+ *
+ *   entries:  id → JSON bytes of ONE car (only available cars, ordered by id)
+ *   snapshot: "[" + entries joined by "," + "]"  (+ gzipped copy + strong ETag)
+ *
+ * INCREMENTAL: a write re-encodes only the changed car and marks the snapshot
+ * dirty; the next read re-assembles the buffer (byte copies, no JSON work).
+ * A burst of writes costs one re-assembly.
+ *
+ * Serving a request = handing the prebuilt byte[] to the response. No query,
+ * no serialization, no per-request buffers.
+ *
+ * ═══════════════════════════════════════════════════════════════════════════
+ */
+@Component
+public class AvailableCarsSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailableCarsSnapshot.class);
+
+    private static final int LOAD_BATCH_SIZE = 500;
+
+    /**
+     * One immutable version of the encoded inventory
+     */
+    public static final class Snapshot {
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String etag;
+        private final String gzipEtag;
+
+        private Snapshot(byte[] json, byte[] gzip, String hash) {
+            this.json = json;
+            this.gzip = gzip;
+            // Different bytes on the wire → different strong validator
+            this.etag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + "-gzip\"";
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getGzipEtag() {
+            return gzipEtag;
+        }
+    }
+
+    private final CarRepository carRepository;
+    private final ObjectWriter carWriter;
+
+    private final ConcurrentSkipListMap<Long, byte[]> entries = new ConcurrentSkipListMap<>();
+
+    private volatile Snapshot current;
+    private volatile boolean dirty = true;
+    private volatile boolean loaded = false;
+
+    public AvailableCarsSnapshot(CarRepository carRepository, ObjectMapper objectMapper) {
+        this.carRepository = carRepository;
+        this.carWriter = objectMapper.writerFor(Car.class);
+    }
+
+    /**
+     * Current snapshot, re-assembled first if a write happened since the last read
+     */
+    public Snapshot get() {
+        Snapshot snapshot = current;
+        if (snapshot != null && !dirty) {
+            return snapshot;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                loadAll();
+            }
+            if (current == null || dirty) {
+                // Clear the flag BEFORE reading entries: a concurrent write sets it again
+                dirty = false;
+                current = assemble();
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Apply a saved/updated car: re-encode it if available, drop it otherwise
+     */
+    public void apply(Car car) {
+        if (Boolean.TRUE.equals(car.getIsAvailable())) {
+            entries.put(car.getId(), encode(car));
+        } else {
+            entries.remove(car.getId());
+        }
+        dirty = true;
+    }
+
+    public void remove(Long id) {
+        entries.remove(id);
+        dirty = true;
+    }
+
+    /**
+     * Reload one car from the database (used for changes made by other instances)
+     */
+    public void refresh(Long id) {
+        carRepository.findById(id).ifPresentOrElse(this::apply, () -> remove(id));
+    }
+
+    /**
+     * Forget everything and reload from the database on the next read.
+     * Used after bulk writes (CSV/NDJSON import) where per-car updates would cost more than a reload.
+     */
+    public synchronized void invalidateAll() {
+        loaded = false;
+        dirty = true;
+    }
+
+    private void loadAll() {
+        entries.clear();
+        long afterId = 0L;
+        Pageable batch = PageRequest.of(0, LOAD_BATCH_SIZE, Sort.by(Sort.Direction.ASC, "id"));
+        List<Car> cars;
+        do {
+            cars = carRepository.findByIsAvailableAndIdGreaterThan(true, afterId, batch, Car.class);
+            for (Car car : cars) {
+                entries.put(car.getId(), encode(car));
+                afterId = car.getId();
+            }
+        } while (cars.size() == LOAD_BATCH_SIZE);
+        loaded = true;
+        dirty = true;
+        log.info("Available cars snapshot loaded: {} cars", entries.size());
+    }
+
+    private Snapshot assemble() {
+        ByteArrayOutputStream json = new ByteArrayOutputStream(estimateSize());
+        json.write('[');
+        boolean first = true;
+        for (byte[] entry : entries.values()) {
+            if (!first) {
+                json.write(',');
+            }
+            json.writeBytes(entry);
+            first = false;
+        }
+        json.write(']');
+
+        byte[] jsonBytes = json.toByteArray();
+        return new Snapshot(jsonBytes, gzip(jsonBytes), DigestUtils.md5DigestAsHex(jsonBytes));
+    }
+
+    private int estimateSize() {
+        Snapshot previous = current;
+        return previous != null ? previous.getJson().length + 1024 : 64 * 1024;
+    }
+
+    private byte[] encode(Car car) {
+        try {
+            return carWriter.writeValueAsBytes(car);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
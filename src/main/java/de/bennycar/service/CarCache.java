@@ -0,0 +1,113 @@
+package de.bennycar.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.bennycar.model.Car;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * ═══════════════════════════════════════════════════════════════════════════
+ * CAR CACHE - Bounded in-process read-through cache for detail lookups
+ * ═══════════════════════════════════════════════════════════════════════════
+ *
+ * Sits in front of CarRepository.findById / findByVin:
+ * - SIZE BOUND: at most bennycar.cache.max-size cars (W-TinyLFU eviction)
+ * - TIME BOUND: entries expire bennycar.cache.ttl after being written
+ * - COHERENCE: every instance evicts on car events from its own queue
+ *   (see CarEventConsumer.consumeCacheInvalidation), no shared cache server
+ *
+ * VIN lookups map VIN → id and then read the id cache, so one invalidation by
+ * id covers both paths, even if the VIN itself was changed.
+ *
+ * Metrics (Micrometer, /actuator/metrics):
+ *   cache.gets{cache=cars.byId|cars.byVin, result=hit|miss}
+ *   cache.evictions{cache=...}, cache.size{cache=...}
+ *
+ * ═══════════════════════════════════════════════════════════════════════════
+ */
+@Component
+public class CarCache {
+
+    private final Cache<Long, Car> byId;
+    private final Cache<String, Long> idByVin;
+
+    public CarCache(@Value("${bennycar.cache.max-size:10000}") long maxSize,
+                    @Value("${bennycar.cache.ttl:10m}") Duration ttl,
+                    MeterRegistry meterRegistry) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.idByVin = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "cars.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, idByVin, "cars.byVin");
+    }
+
+    /**
+     * Read-through by id. Misses are not cached, so a car created later is found immediately.
+     */
+    public Optional<Car> getById(Long id, Function<Long, Optional<Car>> loader) {
+        return Optional.ofNullable(byId.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    /**
+     * Read-through by VIN. A cached VIN whose car no longer carries that VIN is treated as a miss.
+     */
+    public Optional<Car> getByVin(String vin, Function<String, Optional<Car>> loader) {
+        Long id = idByVin.getIfPresent(vin);
+        if (id != null) {
+            Car cached = byId.getIfPresent(id);
+            if (cached != null && vin.equals(cached.getVin())) {
+                return Optional.of(cached);
+            }
+            idByVin.invalidate(vin);
+        }
+
+        Optional<Car> loaded = loader.apply(vin);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    /**
+     * Cached car without loading on a miss (no stats recorded)
+     */
+    public Optional<Car> peekById(Long id) {
+        return Optional.ofNullable(byId.asMap().get(id));
+    }
+
+    public Optional<Car> peekByVin(String vin) {
+        Long id = idByVin.asMap().get(vin);
+        return Optional.ofNullable(id != null ? byId.asMap().get(id) : null)
+                .filter(car -> vin.equals(car.getVin()));
+    }
+
+    public void put(Car car) {
+        byId.put(car.getId(), car);
+        idByVin.put(car.getVin(), car.getId());
+    }
+
+    /**
+     * Drop a car from both caches. VIN may be null when only the id is known.
+     */
+    public void evict(Long id, String vin) {
+        if (id != null) {
+            byId.invalidate(id);
+        }
+        if (vin != null) {
+            idByVin.invalidate(vin);
+        }
+    }
+}
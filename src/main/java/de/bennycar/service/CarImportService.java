@@ -0,0 +1,553 @@
+package de.bennycar.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import de.bennycar.dto.CarEventMessage;
+import de.bennycar.dto.CarImportReport;
+import de.bennycar.messaging.CarEventOutbox;
+import de.bennycar.model.Car;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ═══════════════════════════════════════════════════════════════════════════
+ * CAR IMPORT SERVICE - Bulk inventory import via PostgreSQL COPY
+ * ═══════════════════════════════════════════════════════════════════════════
+ *
+ * Dealer feeds are hundreds of MB; one INSERT per row (or even JDBC batching)
+ * is dominated by round trips and per-row ORM work. Instead:
+ *
+ * 1. PARSE:   the upload is read record by record (CSV or NDJSON), never held in memory
+ * 2. COPY:    valid rows are re-encoded as canonical CSV and streamed into a
+ *             TEMP staging table with COPY FROM STDIN (one command, no per-row round trip)
+ * 3. MERGE:   one set-based INSERT ... ON CONFLICT (vin) DO UPDATE into cars.
+ *             Rows whose columns are identical are skipped by the WHERE clause,
+ *             so untouched cars keep their updated_at and produce no event
+ * 4. EVENTS:  the changed rows (captured with RETURNING) are streamed back and
+ *             recorded in the outbox in JDBC batches - CREATED, or one CHANGED
+ *             whose change mask says whether price / availability moved.
+ *             Everything commits as ONE transaction; the outbox relay publishes afterwards
+ * 5. EVICT:   after the commit, updated cars are evicted from the local CarCache
+ *             (streamed again from the capture table) - evicting before it would let
+ *             a concurrent read re-cache the old row
+ *
+ * Progress (rows read, rejected, rows/s) is logged every PROGRESS_INTERVAL rows
+ * and exposed through GET /api/cars/import/status while the import runs.
+ *
+ * ═══════════════════════════════════════════════════════════════════════════
+ */
+@Service
+public class CarImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CarImportService.class);
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int PROGRESS_INTERVAL = 10_000;
+    private static final int EVENT_BATCH_SIZE = 1000;
+    private static final int FETCH_SIZE = 1000;
+
+    /** Staging columns in COPY order - same names as in cars */
+    private static final String COLUMNS = "name, vin, brand, model, year, color, transmission, fuel_type, "
+            + "body_type, mileage, price, description, condition, location, is_available";
+
+    private static final String CREATE_STAGING = """
+            CREATE TEMP TABLE car_import_staging (
+                line_no       BIGSERIAL,
+                name          VARCHAR(255),
+                vin           VARCHAR(17),
+                brand         VARCHAR(255),
+                model         VARCHAR(255),
+                year          INTEGER,
+                color         VARCHAR(255),
+                transmission  VARCHAR(255),
+                fuel_type     VARCHAR(255),
+                body_type     VARCHAR(255),
+                mileage       INTEGER,
+                price         DOUBLE PRECISION,
+                description   VARCHAR(500),
+                condition     VARCHAR(255),
+                location      VARCHAR(255),
+                is_available  BOOLEAN
+            )""";
+
+    private static final String CREATE_CHANGES = """
+            CREATE TEMP TABLE car_import_changes (
+                id             BIGINT,
+                vin            VARCHAR(17),
+                brand          VARCHAR(255),
+                model          VARCHAR(255),
+                price          DOUBLE PRECISION,
+                is_available   BOOLEAN,
+                inserted       BOOLEAN,
+                old_price      DOUBLE PRECISION,
+                old_available  BOOLEAN
+            )""";
+
+    private static final String COPY_STAGING =
+            "COPY car_import_staging (" + COLUMNS + ") FROM STDIN WITH (FORMAT csv)";
+
+    /**
+     * Set-based upsert. All CTEs see the same snapshot, so "old" is the pre-image.
+     * - src:    last occurrence of each VIN in the file wins
+     * - merged: insert new VINs, update existing ones only if a column differs
+     *           (xmax = 0 ⇔ the row was inserted, not updated)
+     * Ids come from cars_seq like Hibernate's; each nextval is one whole block
+     * for the pooled optimizer, so the two never hand out the same id.
+     */
+    private static final String MERGE = """
+            WITH src AS (
+                SELECT DISTINCT ON (vin) *
+                FROM car_import_staging
+                ORDER BY vin, line_no DESC
+            ), old AS (
+                SELECT c.id, c.price, c.is_available
+                FROM cars c JOIN src ON src.vin = c.vin
+            ), merged AS (
+                INSERT INTO cars (id, %1$s, created_at, updated_at)
+                SELECT nextval('cars_seq'), %1$s, LOCALTIMESTAMP, LOCALTIMESTAMP
+                FROM src
+                ON CONFLICT (vin) DO UPDATE SET
+                    name = EXCLUDED.name, brand = EXCLUDED.brand, model = EXCLUDED.model,
+                    year = EXCLUDED.year, color = EXCLUDED.color, transmission = EXCLUDED.transmission,
+                    fuel_type = EXCLUDED.fuel_type, body_type = EXCLUDED.body_type,
+                    mileage = EXCLUDED.mileage, price = EXCLUDED.price,
+                    description = EXCLUDED.description, condition = EXCLUDED.condition,
+                    location = EXCLUDED.location, is_available = EXCLUDED.is_available,
+                    updated_at = EXCLUDED.updated_at, version = cars.version + 1
+                WHERE (cars.name, cars.brand, cars.model, cars.year, cars.color, cars.transmission,
+                       cars.fuel_type, cars.body_type, cars.mileage, cars.price, cars.description,
+                       cars.condition, cars.location, cars.is_available)
+                      IS DISTINCT FROM
+                      (EXCLUDED.name, EXCLUDED.brand, EXCLUDED.model, EXCLUDED.year, EXCLUDED.color,
+                       EXCLUDED.transmission, EXCLUDED.fuel_type, EXCLUDED.body_type, EXCLUDED.mileage,
+                       EXCLUDED.price, EXCLUDED.description, EXCLUDED.condition, EXCLUDED.location,
+                       EXCLUDED.is_available)
+                RETURNING id, vin, brand, model, price, is_available, (xmax = 0) AS inserted
+            )
+            INSERT INTO car_import_changes
+            SELECT m.id, m.vin, m.brand, m.model, m.price, m.is_available, m.inserted,
+                   o.price, o.is_available
+            FROM merged m LEFT JOIN old o ON o.id = m.id
+            """.formatted(COLUMNS);
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader carReader;
+    private final CarEventOutbox carEventOutbox;
+    private final CarCache carCache;
+    private final AvailableCarsSnapshot availableCarsSnapshot;
+
+    /** Imports currently running on this instance, by import id */
+    private final Map<String, CarImportReport> activeImports = new ConcurrentHashMap<>();
+
+    public CarImportService(DataSource dataSource, ObjectMapper objectMapper, CarEventOutbox carEventOutbox,
+                            CarCache carCache, AvailableCarsSnapshot availableCarsSnapshot) {
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.carReader = objectMapper.readerFor(Car.class);
+        this.carEventOutbox = carEventOutbox;
+        this.carCache = carCache;
+        this.availableCarsSnapshot = availableCarsSnapshot;
+    }
+
+    public Collection<CarImportReport> getActiveImports() {
+        return activeImports.values();
+    }
+
+    /**
+     * Run one import to completion on the calling thread
+     *
+     * @param format FORMAT_CSV (header row with Car property names) or FORMAT_NDJSON (one Car per line)
+     * @return final report; phase is FAILED if the database work was rolled back
+     * @throws IllegalArgumentException for an unknown format or a CSV without header row
+     */
+    public CarImportReport importCars(InputStream input, String format) {
+        if (!FORMAT_CSV.equals(format) && !FORMAT_NDJSON.equals(format)) {
+            throw new IllegalArgumentException("Unsupported import format: " + format);
+        }
+        CarImportReport report = new CarImportReport(format);
+        activeImports.put(report.getImportId(), report);
+        log.info("Import {} started ({})", report.getImportId(), format);
+
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(input, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_STAGING);
+                    statement.execute(CREATE_CHANGES);
+                }
+
+                // Step 1 + 2: parse and COPY into staging
+                if (FORMAT_CSV.equals(format)) {
+                    copyCsv(connection, reader, report);
+                } else {
+                    copyNdjson(connection, reader, report);
+                }
+
+                // Step 3: set-based merge
+                report.phase(CarImportReport.Phase.MERGING);
+                merge(connection, report);
+
+                // Step 4: outbox events for changed rows only, committed together with the merge
+                report.phase(CarImportReport.Phase.RECORDING_EVENTS);
+                recordChanges(connection, report);
+                connection.commit();
+
+                // Step 5: local cache, now that the new rows are visible
+                evictUpdated(connection, report);
+                if (report.getInserted() + report.getUpdated() > 0) {
+                    availableCarsSnapshot.invalidateAll();
+                }
+                report.phase(CarImportReport.Phase.DONE);
+
+            } catch (IllegalArgumentException e) {
+                // Unusable upload (e.g. no header row) - a client error, not a failed import
+                connection.rollback();
+                throw e;
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                log.error("Import {} failed", report.getImportId(), e);
+                report.failed(e.getMessage());
+            } finally {
+                dropStagingTables(connection);
+            }
+        } catch (SQLException e) {
+            log.error("Import {} failed", report.getImportId(), e);
+            report.failed(e.getMessage());
+        } finally {
+            activeImports.remove(report.getImportId());
+        }
+
+        log.info("Import {} {}: {} rows read, {} rejected, {} inserted, {} updated, {} unchanged in {} ms ({} rows/s)",
+                report.getImportId(), report.getPhase(), report.getRowsRead(), report.getRowsRejected(),
+                report.getInserted(), report.getUpdated(), report.getUnchanged(), report.getDurationMs(),
+                Math.round(report.getRowsPerSecond()));
+        return report;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // PARSE + COPY
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private void copyCsv(Connection connection, BufferedReader reader, CarImportReport report)
+            throws SQLException, IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null || !header.contains("vin")) {
+            throw new IllegalArgumentException("CSV header row with a 'vin' column is required");
+        }
+
+        try (StagingWriter staging = new StagingWriter(connection)) {
+            long line = 1;
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                line++;
+                if (record.size() == 1 && record.get(0) == null) {
+                    continue; // blank line
+                }
+                report.rowRead();
+                if (record.size() != header.size()) {
+                    report.rowRejected(line, "expected " + header.size() + " fields, got " + record.size());
+                } else {
+                    // Missing values are left out so entity defaults (isAvailable = true) apply
+                    Map<String, String> row = new LinkedHashMap<>();
+                    for (int i = 0; i < header.size(); i++) {
+                        if (record.get(i) != null) {
+                            row.put(header.get(i), record.get(i));
+                        }
+                    }
+                    try {
+                        stage(staging, objectMapper.convertValue(row, Car.class), line, report);
+                    } catch (IllegalArgumentException e) {
+                        report.rowRejected(line, e.getMessage());
+                    }
+                }
+                logProgress(report);
+            }
+        }
+    }
+
+    private void copyNdjson(Connection connection, BufferedReader reader, CarImportReport report)
+            throws SQLException, IOException {
+        try (StagingWriter staging = new StagingWriter(connection)) {
+            long line = 0;
+            String json;
+            while ((json = reader.readLine()) != null) {
+                line++;
+                if (json.isBlank()) {
+                    continue;
+                }
+                report.rowRead();
+                try {
+                    stage(staging, carReader.readValue(json), line, report);
+                } catch (JsonProcessingException e) {
+                    report.rowRejected(line, e.getOriginalMessage());
+                }
+                logProgress(report);
+            }
+        }
+    }
+
+    private void stage(StagingWriter staging, Car car, long line, CarImportReport report) throws SQLException {
+        String error = validate(car);
+        if (error != null) {
+            report.rowRejected(line, error);
+            return;
+        }
+        staging.write(car);
+    }
+
+    /**
+     * Same constraints as the cars table - a bad row is rejected here instead of aborting the COPY
+     */
+    private static String validate(Car car) {
+        if (car.getVin() == null || car.getVin().isBlank()) return "vin is required";
+        if (car.getVin().length() > 17) return "vin longer than 17 characters";
+        if (car.getName() == null) return "name is required";
+        if (car.getBrand() == null) return "brand is required";
+        if (car.getModel() == null) return "model is required";
+        if (car.getYear() == null) return "year is required";
+        if (car.getPrice() == null) return "price is required";
+        if (car.getCondition() == null) return "condition is required";
+        if (car.getDescription() != null && car.getDescription().length() > 500) {
+            return "description longer than 500 characters";
+        }
+        return null;
+    }
+
+    private static void logProgress(CarImportReport report) {
+        if (report.getRowsRead() % PROGRESS_INTERVAL == 0) {
+            log.info("Import {}: {} rows read, {} rejected, {} rows/s", report.getImportId(),
+                    report.getRowsRead(), report.getRowsRejected(), Math.round(report.getRowsPerSecond()));
+        }
+    }
+
+    /**
+     * Streams canonical CSV rows into one COPY FROM STDIN, flushing every COPY_BUFFER_SIZE bytes
+     * Strings are always quoted so that "" (empty string) and an empty field (NULL) stay distinct.
+     */
+    private static final class StagingWriter implements AutoCloseable {
+
+        private final CopyIn copyIn;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(COPY_BUFFER_SIZE + 4096);
+        private final StringBuilder row = new StringBuilder(512);
+
+        StagingWriter(Connection connection) throws SQLException {
+            this.copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING);
+        }
+
+        void write(Car car) throws SQLException {
+            row.setLength(0);
+            text(car.getName()).append(',');
+            text(car.getVin()).append(',');
+            text(car.getBrand()).append(',');
+            text(car.getModel()).append(',');
+            value(car.getYear()).append(',');
+            text(car.getColor()).append(',');
+            value(car.getTransmission()).append(',');
+            value(car.getFuelType()).append(',');
+            value(car.getBodyType()).append(',');
+            value(car.getMileage()).append(',');
+            value(car.getPrice()).append(',');
+            text(car.getDescription()).append(',');
+            value(car.getCondition()).append(',');
+            text(car.getLocation()).append(',');
+            value(car.getIsAvailable()).append('\n');
+
+            buffer.writeBytes(row.toString().getBytes(StandardCharsets.UTF_8));
+            if (buffer.size() >= COPY_BUFFER_SIZE) {
+                flush();
+            }
+        }
+
+        private StringBuilder text(String value) {
+            if (value == null) {
+                return row;
+            }
+            row.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    row.append('"');
+                }
+                row.append(c);
+            }
+            return row.append('"');
+        }
+
+        private StringBuilder value(Object value) {
+            return value == null ? row : row.append(value);
+        }
+
+        private void flush() throws SQLException {
+            if (buffer.size() > 0) {
+                copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+                buffer.reset();
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (!copyIn.isActive()) {
+                return;
+            }
+            try {
+                flush();
+                copyIn.endCopy();
+            } catch (SQLException | RuntimeException e) {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+                throw e;
+            }
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // MERGE + PUBLISH
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private void merge(Connection connection, CarImportReport report) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(MERGE);
+
+            long distinctVins;
+            try (ResultSet rs = statement.executeQuery("SELECT count(DISTINCT vin) FROM car_import_staging")) {
+                rs.next();
+                distinctVins = rs.getLong(1);
+            }
+            long inserted;
+            long updated;
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT count(*) FILTER (WHERE inserted), count(*) FILTER (WHERE NOT inserted) "
+                            + "FROM car_import_changes")) {
+                rs.next();
+                inserted = rs.getLong(1);
+                updated = rs.getLong(2);
+            }
+            report.merged(inserted, updated, distinctVins);
+        }
+    }
+
+    /**
+     * Stream the captured changes (server-side cursor: autocommit is off and a fetch size is set)
+     * and write their events to the outbox EVENT_BATCH_SIZE at a time
+     */
+    private void recordChanges(Connection connection, CarImportReport report) throws SQLException {
+        if (report.getInserted() + report.getUpdated() == 0) {
+            return;
+        }
+        List<CarEventMessage> events = new ArrayList<>(EVENT_BATCH_SIZE + 2);
+        try (Statement statement = connection.createStatement()) {
+            statement.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT id, vin, brand, model, price, is_available, inserted, old_price, old_available "
+                            + "FROM car_import_changes ORDER BY id")) {
+                while (rs.next()) {
+                    collectEvents(rs, events);
+                    if (events.size() >= EVENT_BATCH_SIZE) {
+                        record(connection, events, report);
+                    }
+                }
+            }
+        }
+        record(connection, events, report);
+    }
+
+    private void collectEvents(ResultSet rs, List<CarEventMessage> events) throws SQLException {
+        long id = rs.getLong("id");
+        String vin = rs.getString("vin");
+        String brand = rs.getString("brand");
+        String model = rs.getString("model");
+        double price = rs.getDouble("price");
+        boolean available = rs.getBoolean("is_available");
+
+        if (rs.getBoolean("inserted")) {
+            events.add(new CarEventMessage("CREATED", id, vin, brand, model, price, available,
+                    "New car added to inventory (import)"));
+            return;
+        }
+
+        CarEventMessage changeEvent = new CarEventMessage(CarEventMessage.CHANGED, id, vin, brand, model, price,
+                available, "Car updated by import");
+        int changes = CarEventMessage.CHANGED_DETAILS;
+        double oldPrice = rs.getDouble("old_price");
+        if (Double.compare(oldPrice, price) != 0) {
+            changes |= CarEventMessage.CHANGED_PRICE;
+            changeEvent.setOldPrice(oldPrice);
+        }
+        if (rs.getBoolean("old_available") != available) {
+            changes |= CarEventMessage.CHANGED_AVAILABILITY;
+        }
+        changeEvent.setChanges(changes);
+        events.add(changeEvent);
+    }
+
+    private void record(Connection connection, List<CarEventMessage> events, CarImportReport report)
+            throws SQLException {
+        carEventOutbox.addAll(connection, events);
+        report.eventsQueued(events.size());
+        events.clear();
+    }
+
+    /**
+     * Evict the updated cars from the local cache, after the commit
+     *
+     * The temp capture table outlives the commit (ON COMMIT PRESERVE ROWS) until
+     * dropStagingTables. A failure here is only logged: the import is committed,
+     * and the CHANGED events evict the entries on their way back.
+     */
+    private void evictUpdated(Connection connection, CarImportReport report) {
+        if (report.getUpdated() == 0) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = statement.executeQuery("SELECT id, vin FROM car_import_changes WHERE NOT inserted")) {
+                while (rs.next()) {
+                    carCache.evict(rs.getLong("id"), rs.getString("vin"));
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Import {}: could not evict updated cars from the cache", report.getImportId(), e);
+        }
+    }
+
+    private static void dropStagingTables(Connection connection) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS car_import_staging, car_import_changes");
+            connection.commit();
+        } catch (SQLException e) {
+            log.warn("Could not drop import staging tables", e);
+        }
+    }
+}
@@ -1,16 +1,47 @@
 package de.bennycar.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import de.bennycar.dto.CarEventMessage;
-import de.bennycar.messaging.CarEventProducer;
+import de.bennycar.dto.CarPatch;
+import de.bennycar.dto.CarPatchResult;
+import de.bennycar.dto.CarRepriceRequest;
+import de.bennycar.dto.CarRepriceResult;
+import de.bennycar.dto.CarSearchCriteria;
+import de.bennycar.dto.CursorPage;
+import de.bennycar.dto.PageResponse;
+import de.bennycar.messaging.CarEventOutbox;
 import de.bennycar.model.Car;
+import de.bennycar.model.Versioned;
 import de.bennycar.repository.CarRepository;
+import de.bennycar.repository.CarSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
 
 /**
  * ═══════════════════════════════════════════════════════════════════════════
@@ -37,101 +68,356 @@ public class CarService {
 
     private static final Logger log = LoggerFactory.getLogger(CarService.class);
 
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+    /** Upper bound for POST /api/cars/batch */
+    public static final int MAX_BATCH_SIZE = 5000;
+
+    /** Matches spring.jpa.properties.hibernate.jdbc.batch_size */
+    private static final int INSERT_BATCH_SIZE = 50;
+
+    /** Events per batched publish of a bulk operation */
+    private static final int EVENT_BATCH_SIZE = 1000;
+
+    /** Attempts of an unconditional PUT before giving up on a hot car */
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+
+    private static final Set<String> SORTABLE_FIELDS =
+            Set.of("id", "brand", "model", "year", "price", "mileage", "createdAt", "updatedAt");
+
     @Autowired
     private CarRepository carRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CarCache carCache;
+
+    @Autowired
+    private AvailableCarsSnapshot availableCarsSnapshot;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     /**
-     * AMQP PRODUCER - Publishes events to RabbitMQ
-     * Injected by Spring automatically
+     * TRANSACTIONAL OUTBOX - Events are recorded in the same transaction as the
+     * car change; CarEventOutboxRelay publishes them to RabbitMQ after commit
      */
     @Autowired
-    private CarEventProducer carEventProducer;
+    private CarEventOutbox carEventOutbox;
 
     /**
      * SAVE CAR - Create new car and publish CREATED event
      *
      * Flow:
      * 1. Save car to database (PostgreSQL)
-     * 2. Create event message with car details
-     * 3. Publish to RabbitMQ (asynchronous, fire-and-forget)
-     * 4. Return saved car to caller
-     * 5. Meanwhile: Consumers process event (analytics, notifications, etc.)
+     * 2. Record the CREATED event in the outbox - same transaction, so both or neither commit
+     * 3. Return saved car to caller (no broker round trip on the request thread)
+     * 4. Meanwhile: the outbox relay publishes the event and consumers process it
      */
     public Car saveCar(Car car) {
-        // Step 1: Save to database
-        Car savedCar = carRepository.save(car);
-        log.info("Car saved to database: ID={}, VIN={}", savedCar.getId(), savedCar.getVin());
-
-        // Step 2: Create event message
-        CarEventMessage event = new CarEventMessage(
-                "CREATED",
-                savedCar.getId(),
-                savedCar.getVin(),
-                savedCar.getBrand(),
-                savedCar.getModel(),
-                savedCar.getPrice(),
-                savedCar.getIsAvailable(),
-                "New car added to inventory"
-        );
-
-        // Step 3: Publish event to RabbitMQ
-        carEventProducer.sendCarCreatedEvent(event);
-        log.info("Car CREATED event published to RabbitMQ");
+        Car savedCar = transactionTemplate.execute(status -> {
+            // Step 1: Save to database
+            Car saved = carRepository.save(car);
+
+            // Step 2: Record event in the outbox
+            carEventOutbox.add(new CarEventMessage(
+                    "CREATED",
+                    saved.getId(),
+                    saved.getVin(),
+                    saved.getBrand(),
+                    saved.getModel(),
+                    saved.getPrice(),
+                    saved.getIsAvailable(),
+                    "New car added to inventory"
+            ));
+            return saved;
+        });
+        log.info("Car saved to database: ID={}, VIN={}, CREATED event queued in outbox",
+                savedCar.getId(), savedCar.getVin());
+        availableCarsSnapshot.apply(savedCar);
 
         return savedCar;
     }
 
-    public List<Car> getAllCars() {
-        return carRepository.findAll();
+    /**
+     * BULK CREATE - Insert many cars with JDBC batching and publish their events as one batch
+     *
+     * Flow:
+     * 1. Reject duplicate VINs (within the request or already stored) with ONE query
+     * 2. Persist in a single transaction; ids come from the pooled sequence, so
+     *    Hibernate sends INSERTs in JDBC batches of hibernate.jdbc.batch_size
+     * 3. Flush + clear every batch to keep the persistence context small
+     * 4. Record all CREATED events in the outbox with one JDBC batch, same transaction
+     *
+     * @throws DuplicateVinException if any VIN is not unique
+     * @throws IllegalArgumentException if the batch is empty or larger than MAX_BATCH_SIZE
+     */
+    public List<Car> saveCars(List<Car> cars) {
+        if (cars.isEmpty() || cars.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + MAX_BATCH_SIZE);
+        }
+
+        // Step 1: VIN uniqueness - inside the request, then against the database
+        Set<String> vins = new HashSet<>();
+        List<String> duplicates = new ArrayList<>();
+        for (Car car : cars) {
+            if (!vins.add(car.getVin())) {
+                duplicates.add(car.getVin());
+            }
+        }
+        duplicates.addAll(carRepository.findExistingVins(vins));
+        if (!duplicates.isEmpty()) {
+            throw new DuplicateVinException(duplicates);
+        }
+
+        // Step 2 + 3: batched inserts in one transaction
+        List<Car> savedCars = transactionTemplate.execute(status -> {
+            for (int i = 0; i < cars.size(); i++) {
+                entityManager.persist(cars.get(i));
+                if ((i + 1) % INSERT_BATCH_SIZE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+
+            // Step 4: one batched outbox insert instead of one publish per car
+            List<CarEventMessage> events = new ArrayList<>(cars.size());
+            for (Car savedCar : cars) {
+                events.add(new CarEventMessage(
+                        "CREATED",
+                        savedCar.getId(),
+                        savedCar.getVin(),
+                        savedCar.getBrand(),
+                        savedCar.getModel(),
+                        savedCar.getPrice(),
+                        savedCar.getIsAvailable(),
+                        "New car added to inventory (bulk)"
+                ));
+            }
+            carEventOutbox.addAll(events);
+            return cars;
+        });
+        log.info("{} cars saved to database in batches of {}", savedCars.size(), INSERT_BATCH_SIZE);
+
+        savedCars.forEach(availableCarsSnapshot::apply);
+        return savedCars;
+    }
+
+    /**
+     * List finders are generic over the projection:
+     * - Car.class → full entities for the response body
+     * - CarVersion.class → id + version + updatedAt only, for conditional GET validation
+     */
+    public <T extends Versioned> CursorPage<T> getAllCars(String cursor, Integer size, Class<T> type) {
+        return page(cursor, size, (afterId, pageable) ->
+                carRepository.findByIdGreaterThan(afterId, pageable, type));
     }
 
+    /**
+     * Detail lookups are served from CarCache; the repository is only hit on a miss
+     */
     public Optional<Car> getCarById(Long id) {
-        return carRepository.findById(id);
+        return carCache.getById(id, carRepository::findById);
     }
 
     public Optional<Car> getCarByVin(String vin) {
-        return carRepository.findByVin(vin);
+        return carCache.getByVin(vin, carRepository::findByVin);
+    }
+
+    /**
+     * Version of a car for conditional GETs - from the cache if present,
+     * otherwise a "SELECT id, version, updated_at" that never loads the entity
+     */
+    public Optional<? extends Versioned> getCarVersion(Long id) {
+        Optional<Car> cached = carCache.peekById(id);
+        return cached.isPresent() ? cached : carRepository.findVersionById(id);
+    }
+
+    public Optional<? extends Versioned> getCarVersionByVin(String vin) {
+        Optional<Car> cached = carCache.peekByVin(vin);
+        return cached.isPresent() ? cached : carRepository.findVersionByVin(vin);
+    }
+
+    public <T extends Versioned> CursorPage<T> getCarsByBrand(String brand, String cursor, Integer size,
+                                                              Class<T> type) {
+        return page(cursor, size, (afterId, pageable) ->
+                carRepository.findByBrandAndIdGreaterThan(brand, afterId, pageable, type));
     }
 
-    public List<Car> getCarsByBrand(String brand) {
-        return carRepository.findByBrand(brand);
+    public <T extends Versioned> CursorPage<T> getCarsByModel(String model, String cursor, Integer size,
+                                                              Class<T> type) {
+        return page(cursor, size, (afterId, pageable) ->
+                carRepository.findByModelAndIdGreaterThan(model, afterId, pageable, type));
     }
 
-    public List<Car> getCarsByModel(String model) {
-        return carRepository.findByModel(model);
+    public <T extends Versioned> CursorPage<T> getCarsByBrandAndModel(String brand, String model, String cursor,
+                                                                      Integer size, Class<T> type) {
+        return page(cursor, size, (afterId, pageable) ->
+                carRepository.findByBrandAndModelAndIdGreaterThan(brand, model, afterId, pageable, type));
     }
 
-    public List<Car> getCarsByBrandAndModel(String brand, String model) {
-        return carRepository.findByBrandAndModel(brand, model);
+    /**
+     * Whole available inventory as prebuilt JSON (see AvailableCarsSnapshot)
+     */
+    public AvailableCarsSnapshot.Snapshot getAvailableCarsSnapshot() {
+        return availableCarsSnapshot.get();
+    }
+
+    public <T extends Versioned> CursorPage<T> getAvailableCars(String cursor, Integer size, Class<T> type) {
+        return page(cursor, size, (afterId, pageable) ->
+                carRepository.findByIsAvailableAndIdGreaterThan(true, afterId, pageable, type));
     }
 
-    public List<Car> getAvailableCars() {
-        return carRepository.findByIsAvailable(true);
+    public <T extends Versioned> CursorPage<T> getCarsByPriceRange(Double minPrice, Double maxPrice, String cursor,
+                                                                   Integer size, Class<T> type) {
+        return page(cursor, size, (afterId, pageable) ->
+                carRepository.findByPriceBetweenAndIdGreaterThan(minPrice, maxPrice, afterId, pageable, type));
     }
 
-    public List<Car> getCarsByPriceRange(Double minPrice, Double maxPrice) {
-        return carRepository.findByPriceBetween(minPrice, maxPrice);
+    public <T extends Versioned> CursorPage<T> getCarsByYearOrNewer(Integer year, String cursor, Integer size,
+                                                                    Class<T> type) {
+        return page(cursor, size, (afterId, pageable) ->
+                carRepository.findByYearGreaterThanEqualAndIdGreaterThan(year, afterId, pageable, type));
+    }
+
+    /**
+     * SEARCH - Any combination of filters in ONE SQL query
+     *
+     * CarSpecifications turns every non-null criterion into a predicate, so clients
+     * no longer fetch broad lists and filter on their side.
+     *
+     * @param sort "field" or "field,asc|desc" - only whitelisted columns are sortable
+     * @throws IllegalArgumentException for an unknown sort field or direction
+     */
+    public PageResponse<Car> searchCars(CarSearchCriteria criteria, int page, Integer size, String sort) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), CursorPage.normalizeSize(size), parseSort(sort));
+        return new PageResponse<>(carRepository.findAll(CarSpecifications.matching(criteria), pageable));
     }
 
-    public List<Car> getCarsByYearOrNewer(Integer year) {
-        return carRepository.findByYearGreaterThanEqual(year);
+    private Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by(Sort.Direction.ASC, "id");
+        }
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!SORTABLE_FIELDS.contains(property)) {
+            throw new IllegalArgumentException("Unsupported sort field: " + property);
+        }
+        Sort.Direction direction = parts.length > 1
+                ? Sort.Direction.fromString(parts[1].trim())
+                : Sort.Direction.ASC;
+        // id as tie-breaker keeps page boundaries deterministic
+        return Sort.by(direction, property).and(Sort.by(Sort.Direction.ASC, "id"));
+    }
+
+    /**
+     * EXPORT - Stream matching cars as NDJSON (one JSON object per line)
+     *
+     * Heap stays flat regardless of table size:
+     * 1. Rows come from a server-side cursor (fetch size 1000), never a List
+     * 2. Each entity is serialized straight to the output stream
+     * 3. ...and detached right after, so the persistence context doesn't grow
+     *
+     * readOnly transaction is required: the stream must be consumed while the
+     * connection is open, and PostgreSQL needs autocommit=false to honour the fetch size.
+     *
+     * @return number of exported rows
+     */
+    @Transactional(readOnly = true)
+    public long exportCars(String brand, String model, Boolean isAvailable,
+                           Double minPrice, Double maxPrice, Integer minYear,
+                           OutputStream outputStream) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(Car.class);
+        OutputStream out = new BufferedOutputStream(outputStream, EXPORT_BUFFER_SIZE);
+        long count = 0;
+
+        try (Stream<Car> cars = carRepository.streamForExport(
+                brand, model, isAvailable, minPrice, maxPrice, minYear)) {
+            Iterator<Car> iterator = cars.iterator();
+            while (iterator.hasNext()) {
+                Car car = iterator.next();
+                out.write(writer.writeValueAsBytes(car));
+                out.write('\n');
+                entityManager.detach(car);
+                count++;
+            }
+        }
+        out.flush();
+
+        log.info("Exported {} cars as NDJSON", count);
+        return count;
+    }
+
+    /**
+     * KEYSET PAGINATION - Shared by every list finder
+     *
+     * 1. Decode the opaque cursor into the last seen id (0 for the first page)
+     * 2. Fetch size + 1 rows "WHERE id > :afterId ORDER BY id" - the extra row
+     *    only tells us whether a next page exists
+     * 3. Return at most size rows plus the cursor for the next call
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    private <T extends Versioned> CursorPage<T> page(String cursor, Integer size,
+                                                     BiFunction<Long, Pageable, List<T>> finder) {
+        long afterId = CursorPage.decodeCursor(cursor);
+        int pageSize = CursorPage.normalizeSize(size);
+        Pageable pageable = PageRequest.of(0, pageSize + 1, Sort.by(Sort.Direction.ASC, "id"));
+        return CursorPage.of(finder.apply(afterId, pageable), pageSize, Versioned::getId);
     }
 
     /**
      * UPDATE CAR - Update car details and publish appropriate events
      *
-     * Smart event publishing:
-     * - If price changed → send PRICE_CHANGED event to price alert queue
-     * - If availability changed → send AVAILABILITY_CHANGED to inventory queue
-     * - Always send general UPDATE event
+     * Smart event publishing - ONE CHANGED event, routed by its headers:
+     * - If price changed → changed-price header, delivered to the price alert queue
+     * - If availability changed → changed-availability header, delivered to the inventory queue
+     * - Always delivered to the general car events queue
      *
      * This demonstrates SELECTIVE ROUTING:
-     * - Different queues receive different events
+     * - Different queues receive the same event, each exactly once
      * - Consumers only process events they care about
+     *
+     * Compare-and-set: the write is "UPDATE ... WHERE id = ? AND version = ?" (@Version),
+     * so a concurrent change is never overwritten and oldPrice is always the price we replaced.
+     * - expectedVersion given (If-Match): it must be the current version, no retry
+     * - no expectedVersion: re-read and re-apply up to MAX_UPDATE_ATTEMPTS times
+     *
+     * @throws VersionConflictException if the compare-and-set did not succeed
      */
-    public Car updateCar(Long id, Car carDetails) {
+    public Car updateCar(Long id, Car carDetails, Long expectedVersion) {
+        int attempts = expectedVersion == null ? MAX_UPDATE_ATTEMPTS : 1;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Car updatedCar = transactionTemplate.execute(status -> applyUpdate(id, carDetails, expectedVersion));
+
+                // Evict locally right away; other instances evict on the UPDATED event
+                carCache.evict(id, updatedCar.getVin());
+                availableCarsSnapshot.apply(updatedCar);
+                return updatedCar;
+            } catch (ObjectOptimisticLockingFailureException e) {
+                if (attempt >= attempts) {
+                    throw new VersionConflictException(id);
+                }
+                log.info("Concurrent update of car ID={}, retrying ({}/{})", id, attempt, attempts);
+            }
+        }
+    }
+
+    /**
+     * Read-modify-write inside the caller's transaction; the version check runs at commit
+     */
+    private Car applyUpdate(Long id, Car carDetails, Long expectedVersion) {
         Car car = carRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Car not found with id: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(car.getVersion())) {
+            throw new VersionConflictException(id);
+        }
 
         // Track changes for event publishing
         Double oldPrice = car.getPrice();
@@ -157,63 +443,173 @@ public class CarService {
         Car updatedCar = carRepository.save(car);
         log.info("Car updated in database: ID={}", updatedCar.getId());
 
-        // ═══════════════════════════════════════════════════════════════════
-        // SMART EVENT PUBLISHING - Detect what changed
-        // ═══════════════════════════════════════════════════════════════════
+        recordUpdateEvents(updatedCar, oldPrice, oldAvailability);
+
+        return updatedCar;
+    }
+
+    /**
+     * PATCH CAR - Partial update in ONE statement
+     *
+     * Flow:
+     * 0. No field supplied ({}): return the current car - no UPDATE, no version bump, no event
+     * 1. UPDATE ... RETURNING sets only the supplied (non-null) fields and returns
+     *    the new row plus the previous vin, price and availability
+     * 2. Record one CHANGED event; price / availability bits only if those values moved
+     *    (outbox, same transaction)
+     * 3. After commit: evict caches (old and new VIN) and refresh the snapshot
+     *
+     * Compared to updateCar: no SELECT, no entity dirty check, the row lock lasts one statement.
+     * The statement is atomic, so without If-Match concurrent patches cannot lose each other's fields.
+     *
+     * @param expectedVersion If-Match version, or null for an unconditional patch
+     * @return the updated car, empty if no car has this id
+     * @throws VersionConflictException if expectedVersion is not the current version
+     */
+    public Optional<Car> patchCar(Long id, CarPatch changes, Long expectedVersion) {
+        if (changes.isEmpty()) {
+            Optional<Car> current = carRepository.findById(id);
+            if (current.isPresent() && expectedVersion != null
+                    && !expectedVersion.equals(current.get().getVersion())) {
+                throw new VersionConflictException(id);
+            }
+            return current;
+        }
+        Optional<CarPatchResult> result = transactionTemplate.execute(status -> {
+            Optional<CarPatchResult> patched = carRepository.patch(id, changes, expectedVersion);
+            if (patched.isEmpty() && expectedVersion != null && carRepository.existsById(id)) {
+                throw new VersionConflictException(id);
+            }
+            patched.ifPresent(p -> recordUpdateEvents(p.getCar(), p.getOldPrice(), p.getOldAvailable()));
+            return patched;
+        });
+        result.ifPresent(patched -> {
+            Car updatedCar = patched.getCar();
+            log.info("Car patched in database: ID={}", updatedCar.getId());
+
+            carCache.evict(id, patched.getOldVin());
+            carCache.evict(id, updatedCar.getVin());
+            availableCarsSnapshot.apply(updatedCar);
+        });
+        return result.map(CarPatchResult::getCar);
+    }
+
+    /**
+     * BULK REPRICE - Adjust the price of every matching car and publish price CHANGED events
+     *
+     * Flow:
+     * 1. ONE set-based UPDATE ... RETURNING old and new price (no entity loading)
+     * 2. Each returned row becomes a CHANGED event (CHANGED_PRICE)
+     * 3. Events are written to the outbox EVENT_BATCH_SIZE at a time (JDBC batches),
+     *    in the same transaction as the UPDATE
+     * 4. After commit: the repriced cars are evicted from the local cache (by id - the
+     *    VIN cache resolves through it) and the available snapshot is rebuilt once.
+     *    Evicting earlier would let a concurrent read re-cache the old price.
+     *
+     * @throws IllegalArgumentException without filter or without exactly one of percent / amount
+     */
+    public CarRepriceResult repriceCars(CarRepriceRequest request) {
+        if (!request.hasFilter()) {
+            throw new IllegalArgumentException("At least one filter is required");
+        }
+        if ((request.getPercent() == null) == (request.getAmount() == null)) {
+            throw new IllegalArgumentException("Exactly one of percent or amount is required");
+        }
+
+        long start = System.nanoTime();
+        List<CarEventMessage> batch = new ArrayList<>(EVENT_BATCH_SIZE);
+        long[] queued = {0};
+
+        int updated = transactionTemplate.execute(status -> {
+            List<Long> repricedIds = new ArrayList<>();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    repricedIds.forEach(id -> carCache.evict(id, null));
+                }
+            });
+
+            int rows = carRepository.reprice(request, change -> {
+                repricedIds.add(change.getId());
+
+                CarEventMessage priceEvent = new CarEventMessage(
+                        CarEventMessage.CHANGED,
+                        change.getId(),
+                        change.getVin(),
+                        change.getBrand(),
+                        change.getModel(),
+                        change.getNewPrice(),
+                        change.getIsAvailable(),
+                        String.format("Price changed from $%.2f to $%.2f", change.getOldPrice(), change.getNewPrice())
+                );
+                priceEvent.setOldPrice(change.getOldPrice());
+                priceEvent.setChanges(CarEventMessage.CHANGED_PRICE);
+                batch.add(priceEvent);
+
+                if (batch.size() >= EVENT_BATCH_SIZE) {
+                    carEventOutbox.addAll(batch);
+                    queued[0] += batch.size();
+                    batch.clear();
+                }
+            });
+            carEventOutbox.addAll(batch);
+            queued[0] += batch.size();
+            return rows;
+        });
+
+        if (updated > 0) {
+            availableCarsSnapshot.invalidateAll();
+        }
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Repriced {} cars in {} ms, {} CHANGED events queued in outbox", updated, durationMs, queued[0]);
+        return new CarRepriceResult(updated, queued[0], durationMs);
+    }
+
+    /**
+     * SMART EVENT PUBLISHING - Detect what changed
+     *
+     * ONE composite CHANGED event (headers exchange) instead of up to three:
+     * 1. Price moved → CHANGED_PRICE bit (header changed-price → price alert queue)
+     * 2. Availability moved → CHANGED_AVAILABILITY bit (header changed-availability → inventory queue)
+     * 3. Always → CHANGED_DETAILS bit (the update itself)
+     *
+     * car.events.queue and the cache invalidation queues get it exactly once.
+     * Events are recorded in the outbox, so this must run inside the update's transaction.
+     */
+    private void recordUpdateEvents(Car updatedCar, Double oldPrice, Boolean oldAvailability) {
+        int changes = CarEventMessage.CHANGED_DETAILS;
+        List<String> description = new ArrayList<>(3);
 
         // 1. Check for PRICE CHANGE
-        if (carDetails.getPrice() != null && !oldPrice.equals(updatedCar.getPrice())) {
-            CarEventMessage priceEvent = new CarEventMessage(
-                    "PRICE_CHANGED",
-                    updatedCar.getId(),
-                    updatedCar.getVin(),
-                    updatedCar.getBrand(),
-                    updatedCar.getModel(),
-                    updatedCar.getPrice(),
-                    updatedCar.getIsAvailable(),
-                    String.format("Price changed from $%.2f to $%.2f", oldPrice, updatedCar.getPrice())
-            );
-            priceEvent.setOldPrice(oldPrice);
-
-            // Send to TOPIC exchange - will route to price alert queue
-            carEventProducer.sendPriceChangedEvent(priceEvent);
-            log.info("Price CHANGED event published: {} → {}", oldPrice, updatedCar.getPrice());
+        if (!Objects.equals(oldPrice, updatedCar.getPrice())) {
+            changes |= CarEventMessage.CHANGED_PRICE;
+            description.add(String.format("Price changed from $%.2f to $%.2f", oldPrice, updatedCar.getPrice()));
         }
 
         // 2. Check for AVAILABILITY CHANGE (sold/available)
-        if (carDetails.getIsAvailable() != null && !oldAvailability.equals(updatedCar.getIsAvailable())) {
-            CarEventMessage availabilityEvent = new CarEventMessage(
-                    "AVAILABILITY_CHANGED",
-                    updatedCar.getId(),
-                    updatedCar.getVin(),
-                    updatedCar.getBrand(),
-                    updatedCar.getModel(),
-                    updatedCar.getPrice(),
-                    updatedCar.getIsAvailable(),
-                    updatedCar.getIsAvailable() ? "Car is now available" : "Car has been sold"
-            );
-
-            // Send to TOPIC exchange - will route to inventory queue
-            carEventProducer.sendAvailabilityChangedEvent(availabilityEvent);
-            log.info("Availability CHANGED event published: {} → {}",
-                    oldAvailability, updatedCar.getIsAvailable());
+        if (!Objects.equals(oldAvailability, updatedCar.getIsAvailable())) {
+            changes |= CarEventMessage.CHANGED_AVAILABILITY;
+            description.add(updatedCar.getIsAvailable() ? "Car is now available" : "Car has been sold");
         }
 
-        // 3. Always send general UPDATE event
-        CarEventMessage updateEvent = new CarEventMessage(
-                "UPDATED",
+        // 3. The update itself
+        description.add("Car details updated");
+
+        CarEventMessage changeEvent = new CarEventMessage(
+                CarEventMessage.CHANGED,
                 updatedCar.getId(),
                 updatedCar.getVin(),
                 updatedCar.getBrand(),
                 updatedCar.getModel(),
                 updatedCar.getPrice(),
                 updatedCar.getIsAvailable(),
-                "Car details updated"
+                String.join("; ", description)
         );
-        carEventProducer.sendCarUpdatedEvent(updateEvent);
-        log.info("Car UPDATED event published");
-
-        return updatedCar;
+        changeEvent.setOldPrice(oldPrice);
+        changeEvent.setChanges(changes);
+        carEventOutbox.add(changeEvent);
+        log.info("Car CHANGED event queued (changes={})", changes);
     }
 
     /**
@@ -224,32 +620,36 @@ public class CarService {
      * - After delete, data is gone from database
      */
     public void deleteCar(Long id) {
-        // Fetch car before deleting (need details for event)
-        Optional<Car> carOptional = carRepository.findById(id);
-
-        if (carOptional.isPresent()) {
-            Car car = carOptional.get();
+        Car car = transactionTemplate.execute(status -> {
+            // Fetch car before deleting (need details for event)
+            Car existing = carRepository.findById(id).orElse(null);
+            if (existing == null) {
+                return null;
+            }
 
             // Delete from database
             carRepository.deleteById(id);
-            log.info("Car deleted from database: ID={}, VIN={}", id, car.getVin());
 
-            // Publish DELETE event
-            CarEventMessage deleteEvent = new CarEventMessage(
+            // Record DELETE event in the outbox, same transaction
+            carEventOutbox.add(new CarEventMessage(
                     "DELETED",
-                    car.getId(),
-                    car.getVin(),
-                    car.getBrand(),
-                    car.getModel(),
-                    car.getPrice(),
+                    existing.getId(),
+                    existing.getVin(),
+                    existing.getBrand(),
+                    existing.getModel(),
+                    existing.getPrice(),
                     false, // No longer available
                     "Car removed from inventory"
-            );
-            carEventProducer.sendCarDeletedEvent(deleteEvent);
-            log.info("Car DELETED event published");
-        } else {
+            ));
+            return existing;
+        });
+
+        if (car == null) {
             log.warn("Attempted to delete non-existent car: ID={}", id);
             throw new RuntimeException("Car not found with id: " + id);
         }
+        log.info("Car deleted from database: ID={}, VIN={}, DELETED event queued", id, car.getVin());
+        carCache.evict(id, car.getVin());
+        availableCarsSnapshot.remove(id);
     }
 }
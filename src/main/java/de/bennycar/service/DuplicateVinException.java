@@ -0,0 +1,20 @@
+package de.bennycar.service;
+
+import java.util.List;
+
+/**
+ * Thrown when cars to be created carry VINs that already exist (or repeat within the request)
+ */
+public class DuplicateVinException extends RuntimeException {
+
+    private final List<String> vins;
+
+    public DuplicateVinException(List<String> vins) {
+        super("Duplicate VINs: " + vins);
+        this.vins = vins;
+    }
+
+    public List<String> getVins() {
+        return vins;
+    }
+}
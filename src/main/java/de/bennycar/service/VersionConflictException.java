@@ -0,0 +1,19 @@
+package de.bennycar.service;
+
+/**
+ * Thrown when a compare-and-set update lost: the car was changed since the
+ * version the caller based its write on (If-Match mismatch or a concurrent update)
+ */
+public class VersionConflictException extends RuntimeException {
+
+    private final Long carId;
+
+    public VersionConflictException(Long carId) {
+        super("Car " + carId + " was modified concurrently");
+        this.carId = carId;
+    }
+
+    public Long getCarId() {
+        return carId;
+    }
+}
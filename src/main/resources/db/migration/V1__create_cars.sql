@@ -0,0 +1,24 @@
+-- Baseline schema, identical to what ddl-auto=update generated from the Car entity.
+-- Existing databases are baselined at this version and skip it (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE IF NOT EXISTS cars (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name          VARCHAR(255)     NOT NULL,
+    vin           VARCHAR(17)      NOT NULL,
+    brand         VARCHAR(255)     NOT NULL,
+    model         VARCHAR(255)     NOT NULL,
+    year          INTEGER          NOT NULL,
+    color         VARCHAR(255),
+    transmission  VARCHAR(255),
+    fuel_type     VARCHAR(255),
+    body_type     VARCHAR(255),
+    mileage       INTEGER,
+    price         DOUBLE PRECISION NOT NULL,
+    description   VARCHAR(500),
+    condition     VARCHAR(255)     NOT NULL,
+    location      VARCHAR(255),
+    is_available  BOOLEAN          NOT NULL,
+    created_at    TIMESTAMP(6),
+    updated_at    TIMESTAMP(6),
+    CONSTRAINT uk_cars_vin UNIQUE (vin)
+);
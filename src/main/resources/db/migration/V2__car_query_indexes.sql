@@ -0,0 +1,26 @@
+-- Indexes for the hot Car access paths.
+--
+-- Every list endpoint pages with "WHERE <filter> AND id > :cursor ORDER BY id LIMIT n",
+-- so the filter columns lead and id trails: the planner can seek to the cursor and
+-- read exactly one page in index order without a sort.
+
+-- findByBrandAndIdGreaterThan, /search?brand=
+CREATE INDEX IF NOT EXISTS idx_cars_brand_id ON cars (brand, id);
+
+-- findByBrandAndModelAndIdGreaterThan, /search?brand=&model=
+CREATE INDEX IF NOT EXISTS idx_cars_brand_model_id ON cars (brand, model, id);
+
+-- findByModelAndIdGreaterThan
+CREATE INDEX IF NOT EXISTS idx_cars_model_id ON cars (model, id);
+
+-- findByIsAvailableAndIdGreaterThan: partial, only the (small) available inventory is indexed
+CREATE INDEX IF NOT EXISTS idx_cars_available_id ON cars (id) WHERE is_available;
+
+-- Price range over the available inventory (storefront queries, /search?available=true&minPrice=)
+CREATE INDEX IF NOT EXISTS idx_cars_available_price ON cars (price) WHERE is_available;
+
+-- findByPriceBetweenAndIdGreaterThan over the whole table
+CREATE INDEX IF NOT EXISTS idx_cars_price ON cars (price);
+
+-- findByYearGreaterThanEqualAndIdGreaterThan, /search?minYear=
+CREATE INDEX IF NOT EXISTS idx_cars_year ON cars (year);
@@ -0,0 +1,11 @@
+-- Sequence-based ids so Hibernate can batch inserts.
+--
+-- IDENTITY ids are only known after each INSERT, which forces Hibernate to execute
+-- inserts one by one. With a sequence and the pooled optimizer (allocationSize 50 =
+-- INCREMENT BY 50) Hibernate assigns 50 ids per round trip and sends the INSERTs
+-- as JDBC batches.
+
+CREATE SEQUENCE IF NOT EXISTS cars_seq INCREMENT BY 50;
+
+-- Continue above the ids handed out by the identity column
+SELECT setval('cars_seq', COALESCE((SELECT MAX(id) FROM cars), 0) + 51, false);
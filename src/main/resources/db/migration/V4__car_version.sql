@@ -0,0 +1,4 @@
+-- Optimistic locking: every UPDATE of a car increments version (JPA @Version).
+-- Existing rows start at 0.
+
+ALTER TABLE cars ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,19 @@
+-- Transactional outbox: car events are written here in the same transaction as the
+-- car change and published to RabbitMQ by CarEventOutboxRelay.
+
+CREATE TABLE car_event_outbox (
+    id           BIGSERIAL        PRIMARY KEY,
+    exchange     VARCHAR(255)     NOT NULL,
+    routing_key  VARCHAR(255)     NOT NULL,
+    event_type   VARCHAR(64)      NOT NULL,
+    car_id       BIGINT,
+    payload      TEXT             NOT NULL,
+    created_at   TIMESTAMP(6)     NOT NULL DEFAULT LOCALTIMESTAMP,
+    sent_at      TIMESTAMP(6)
+);
+
+-- The relay claims "WHERE sent_at IS NULL ORDER BY id": only unsent rows are indexed
+CREATE INDEX idx_car_event_outbox_unsent ON car_event_outbox (id) WHERE sent_at IS NULL;
+
+-- Retention cleanup of published rows
+CREATE INDEX idx_car_event_outbox_sent_at ON car_event_outbox (sent_at) WHERE sent_at IS NOT NULL;
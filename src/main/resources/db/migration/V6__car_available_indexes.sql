@@ -0,0 +1,16 @@
+-- Replace the V2 partial indexes on the available inventory with full composite indexes.
+--
+-- The application never filters with a literal "WHERE is_available": it binds the flag
+-- (findByIsAvailableAndIdGreaterThan(true, ...), CarSpecifications' available filter).
+-- A generic plan for "is_available = $1" cannot be proven to imply the partial index
+-- predicate, so the planner fell back to scanning. Leading with is_available works for
+-- any bound value and keeps the id / price order for the page.
+
+DROP INDEX IF EXISTS idx_cars_available_id;
+DROP INDEX IF EXISTS idx_cars_available_price;
+
+-- findByIsAvailableAndIdGreaterThan: seek to (true, cursor), read one page in id order
+CREATE INDEX IF NOT EXISTS idx_cars_available_id ON cars (is_available, id);
+
+-- Price range over the available inventory (storefront queries, /search?available=true&minPrice=)
+CREATE INDEX IF NOT EXISTS idx_cars_available_price ON cars (is_available, price);
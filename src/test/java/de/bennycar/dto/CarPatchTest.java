@@ -0,0 +1,33 @@
+package de.bennycar.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CarPatchTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void emptyBodyIsAnEmptyPatch() throws Exception {
+        assertThat(objectMapper.readValue("{}", CarPatch.class).isEmpty()).isTrue();
+    }
+
+    @Test
+    void omittedAvailabilityIsLeftAlone() throws Exception {
+        CarPatch patch = objectMapper.readValue("{\"price\": 18990.0}", CarPatch.class);
+
+        assertThat(patch.isEmpty()).isFalse();
+        assertThat(patch.getPrice()).isEqualTo(18_990.0);
+        assertThat(patch.getIsAvailable()).isNull();
+    }
+
+    @Test
+    void availabilityAloneIsAPatch() throws Exception {
+        CarPatch patch = objectMapper.readValue("{\"isAvailable\": false}", CarPatch.class);
+
+        assertThat(patch.isEmpty()).isFalse();
+        assertThat(patch.getIsAvailable()).isFalse();
+    }
+}
@@ -0,0 +1,70 @@
+package de.bennycar.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorPageTest {
+
+    @Test
+    void cursorRoundTripsTheLastId() {
+        String cursor = CursorPage.encodeCursor(12_345L);
+
+        assertThat(cursor).doesNotContain("12345");
+        assertThat(CursorPage.decodeCursor(cursor)).isEqualTo(12_345L);
+    }
+
+    @Test
+    void missingCursorStartsAtTheFirstPage() {
+        assertThat(CursorPage.decodeCursor(null)).isZero();
+        assertThat(CursorPage.decodeCursor("")).isZero();
+        assertThat(CursorPage.decodeCursor("   ")).isZero();
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        assertThatThrownBy(() -> CursorPage.decodeCursor("not base64!"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CursorPage.decodeCursor(encode("page:5")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CursorPage.decodeCursor(encode("id:abc")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CursorPage.decodeCursor(encode("id:")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void pageSizeIsClamped() {
+        assertThat(CursorPage.normalizeSize(null)).isEqualTo(CursorPage.DEFAULT_PAGE_SIZE);
+        assertThat(CursorPage.normalizeSize(0)).isEqualTo(CursorPage.DEFAULT_PAGE_SIZE);
+        assertThat(CursorPage.normalizeSize(-3)).isEqualTo(CursorPage.DEFAULT_PAGE_SIZE);
+        assertThat(CursorPage.normalizeSize(20)).isEqualTo(20);
+        assertThat(CursorPage.normalizeSize(10_000)).isEqualTo(CursorPage.MAX_PAGE_SIZE);
+    }
+
+    @Test
+    void extraRowYieldsACursorToTheLastReturnedRow() {
+        CursorPage<Long> page = CursorPage.of(List.of(1L, 2L, 3L), 2, Function.identity());
+
+        assertThat(page.getData()).containsExactly(1L, 2L);
+        assertThat(CursorPage.decodeCursor(page.getNextCursor())).isEqualTo(2L);
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        CursorPage<Long> page = CursorPage.of(List.of(1L, 2L), 2, Function.identity());
+
+        assertThat(page.getData()).containsExactly(1L, 2L);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,105 @@
+package de.bennycar.messaging;
+
+import de.bennycar.dto.CarEventMessage;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CarEventBinaryCodecTest {
+
+    @Test
+    void roundTripKeepsEveryField() {
+        CarEventMessage event = sampleEvent();
+
+        CarEventMessage decoded = CarEventBinaryCodec.decode(CarEventBinaryCodec.encode(event));
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void roundTripKeepsMillisecondsOfTheTimestamp() {
+        CarEventMessage event = sampleEvent();
+        event.setTimestamp(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_789));
+
+        CarEventMessage decoded = CarEventBinaryCodec.decode(CarEventBinaryCodec.encode(event));
+
+        assertThat(decoded.getTimestamp()).isEqualTo(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_000_000));
+    }
+
+    @Test
+    void eventTypeOutsideTheTableTravelsByName() {
+        CarEventMessage event = sampleEvent();
+        event.setEventType("SOLD");
+
+        CarEventMessage decoded = CarEventBinaryCodec.decode(CarEventBinaryCodec.encode(event));
+
+        assertThat(decoded.getEventType()).isEqualTo("SOLD");
+    }
+
+    @Test
+    void missingFieldsAreNotWrittenAndStayNull() {
+        CarEventMessage event = new CarEventMessage();
+        event.setTimestamp(null);
+
+        byte[] encoded = CarEventBinaryCodec.encode(event);
+        CarEventMessage decoded = CarEventBinaryCodec.decode(encoded);
+
+        assertThat(encoded).containsExactly(CarEventBinaryCodec.VERSION);
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void unknownFieldsFromANewerProducerAreSkipped() {
+        CarEventMessage event = sampleEvent();
+        byte[] encoded = CarEventBinaryCodec.encode(event);
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(encoded[0]);
+        // field 20, varint 300
+        body.writeBytes(new byte[]{(byte) 0xA0, 0x01, (byte) 0xAC, 0x02});
+        // field 21, fixed64
+        body.writeBytes(new byte[]{(byte) 0xA9, 0x01, 1, 2, 3, 4, 5, 6, 7, 8});
+        // field 22, length-delimited "abc"
+        body.writeBytes(new byte[]{(byte) 0xB2, 0x01, 3});
+        body.writeBytes("abc".getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(Arrays.copyOfRange(encoded, 1, encoded.length));
+
+        CarEventMessage decoded = CarEventBinaryCodec.decode(body.toByteArray());
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void unknownVersionIsRejected() {
+        byte[] encoded = CarEventBinaryCodec.encode(sampleEvent());
+        encoded[0] = (byte) (CarEventBinaryCodec.VERSION + 1);
+
+        assertThatThrownBy(() -> CarEventBinaryCodec.decode(encoded))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void truncatedInputIsRejected() {
+        byte[] encoded = CarEventBinaryCodec.encode(sampleEvent());
+
+        assertThatThrownBy(() -> CarEventBinaryCodec.decode(Arrays.copyOf(encoded, encoded.length - 3)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CarEventBinaryCodec.decode(new byte[0]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static CarEventMessage sampleEvent() {
+        CarEventMessage event = new CarEventMessage(CarEventMessage.CHANGED, 42L, "WVWZZZ1JZXW000001",
+                "Volkswagen", "Golf", 18_990.5, true, "Price dropped");
+        event.setOldPrice(19_990.0);
+        event.setChanges(CarEventMessage.CHANGED_PRICE | CarEventMessage.CHANGED_AVAILABILITY);
+        event.setTimestamp(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_000_000));
+        return event;
+    }
+}
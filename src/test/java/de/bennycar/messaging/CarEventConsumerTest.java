@@ -0,0 +1,138 @@
+package de.bennycar.messaging;
+
+import com.rabbitmq.client.Channel;
+import de.bennycar.config.RabbitMQConfig;
+import de.bennycar.dto.CarEventMessage;
+import de.bennycar.service.AvailableCarsSnapshot;
+import de.bennycar.service.CarCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.batch.MessageBatch;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CarEventConsumerTest {
+
+    private static final long DELIVERY_TAG = 7L;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Map<String, CarEventMessage> events = new HashMap<>();
+    private final List<Message> rerouted = new CopyOnWriteArrayList<>();
+    private final Channel channel = mock(Channel.class);
+    private final CarEventDeduplicator deduplicator = mock(CarEventDeduplicator.class);
+    private final PublisherConfirmTracker confirmTracker = mock(PublisherConfirmTracker.class);
+    private final CarEventLanes lanes = new CarEventLanes(meterRegistry, 2, 10);
+    private final CarEventConsumer consumer;
+
+    CarEventConsumerTest() {
+        MessageConverter messageConverter = mock(MessageConverter.class);
+        when(messageConverter.fromMessage(any()))
+                .thenAnswer(call -> events.get(new String(call.<Message>getArgument(0).getBody(), StandardCharsets.UTF_8)));
+        when(confirmTracker.send(any(), any(), any())).thenAnswer(call -> {
+            rerouted.add(call.getArgument(2));
+            return CompletableFuture.completedFuture(null);
+        });
+        // The first event fails with a temporary error, the others go through
+        when(deduplicator.isDuplicate(any())).thenAnswer(call -> {
+            if ("event-1".equals(call.<CarEventMessage>getArgument(0).getEventId())) {
+                throw new IllegalStateException("database unavailable");
+            }
+            return false;
+        });
+        consumer = new CarEventConsumer(mock(CarCache.class), mock(AvailableCarsSnapshot.class), messageConverter,
+                new CarEventRetryTiers(List.of(Duration.ofSeconds(1))), confirmTracker, lanes, deduplicator,
+                meterRegistry, "single", Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void stopLanes() throws InterruptedException {
+        lanes.destroy();
+    }
+
+    @Test
+    void failedFragmentDoesNotSettleTheBatchDeliveryEarly() throws Exception {
+        for (Message fragment : deBatch(batchOfThree())) {
+            consumer.consumeCarEvent(events.get(new String(fragment.getBody(), StandardCharsets.UTF_8)),
+                    fragment, channel);
+        }
+
+        verify(channel, times(1)).basicAck(DELIVERY_TAG, false);
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+        assertRetryCopyOfTheFirstFragment();
+    }
+
+    @Test
+    void failedFragmentOnALaneDoesNotSettleTheBatchDeliveryEarly() throws Exception {
+        List<Message> fragments = deBatch(batchOfThree());
+
+        // The lane reroutes the first fragment while the receiving thread still hands out the others
+        consumer.consumeCarEventInLane(fragments.get(0), channel);
+        verify(confirmTracker, timeout(5_000)).send(any(), any(), any());
+        consumer.consumeCarEventInLane(fragments.get(1), channel);
+        consumer.consumeCarEventInLane(fragments.get(2), channel);
+        lanes.destroy();
+
+        verify(channel, times(1)).basicAck(DELIVERY_TAG, false);
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+        assertRetryCopyOfTheFirstFragment();
+    }
+
+    private void assertRetryCopyOfTheFirstFragment() {
+        verify(confirmTracker, times(1)).send(eq(CarEventRetryTiers.exchangeName(Duration.ofSeconds(1))),
+                eq(RabbitMQConfig.CAR_EVENTS_QUEUE), any(Message.class));
+        MessageProperties copy = rerouted.get(0).getMessageProperties();
+        assertThat(copy.<Object>getHeader(CarEventBatchingStrategy.BATCH_FRAGMENT_HEADER)).isNull();
+        assertThat(copy.<String>getHeader(CarEventConsumer.EXCEPTION_HEADER)).contains("database unavailable");
+    }
+
+    /** One delivery carrying event-1..event-3, as the outbox relay sends it */
+    private Message batchOfThree() {
+        CarEventBatchingStrategy strategy = new CarEventBatchingStrategy(3, 10_000, 10_000);
+        MessageBatch batch = null;
+        for (int i = 1; i <= 3; i++) {
+            String eventId = "event-" + i;
+            CarEventMessage event = new CarEventMessage(CarEventMessage.CHANGED, (long) i, "VIN" + i,
+                    "Volkswagen", "Golf", 20_000.0, true, "test");
+            event.setEventId(eventId);
+            events.put(eventId, event);
+            batch = strategy.addToBatch(RabbitMQConfig.CAR_TOPIC_EXCHANGE, "car.updated",
+                    new Message(eventId.getBytes(StandardCharsets.UTF_8), new MessageProperties()));
+        }
+        Message delivery = batch.getMessage();
+        delivery.getMessageProperties().setDeliveryTag(DELIVERY_TAG);
+        delivery.getMessageProperties().setConsumerQueue(RabbitMQConfig.CAR_EVENTS_QUEUE);
+        return delivery;
+    }
+
+    /** Split the delivery like the listener container does */
+    private static List<Message> deBatch(Message delivery) {
+        List<Message> fragments = new ArrayList<>();
+        new CarEventBatchingStrategy(3, 10_000, 10_000).deBatch(delivery, fragments::add);
+        assertThat(fragments).hasSize(3);
+        return fragments;
+    }
+}
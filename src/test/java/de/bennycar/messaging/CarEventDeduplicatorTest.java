@@ -0,0 +1,162 @@
+package de.bennycar.messaging;
+
+import de.bennycar.dto.CarEventMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CarEventDeduplicatorTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(4);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void unseenEventIsNotADuplicate() {
+        CarEventDeduplicator deduplicator = deduplicator(100);
+
+        assertThat(deduplicator.isDuplicate(event("a"))).isFalse();
+    }
+
+    @Test
+    void recordedEventIsConfirmedByTheRecentIds() {
+        CarEventDeduplicator deduplicator = deduplicator(100);
+        deduplicator.record(event("a"));
+
+        assertThat(deduplicator.isDuplicate(event("a"))).isTrue();
+        assertThat(count("car.events.dedupe.duplicates")).isEqualTo(1);
+        assertThat(count("car.events.dedupe.bloom.unconfirmed")).isZero();
+    }
+
+    @Test
+    void bloomOnlyHitIsProcessedAgain() {
+        CarEventDeduplicator deduplicator = deduplicator(1);
+        deduplicator.record(event("a"));
+        deduplicator.record(event("b"));
+
+        assertThat(deduplicator.isDuplicate(event("a"))).isFalse();
+        assertThat(count("car.events.dedupe.bloom.unconfirmed")).isEqualTo(1);
+        assertThat(count("car.events.dedupe.duplicates")).isZero();
+    }
+
+    @Test
+    void eventIsRememberedWhileItsBucketIsInTheWindow() {
+        CarEventDeduplicator deduplicator = deduplicator(100);
+        deduplicator.record(event("a"));
+
+        clock.addAndGet(WINDOW.toNanos() * 3 / 4);
+
+        assertThat(deduplicator.isDuplicate(event("a"))).isTrue();
+    }
+
+    @Test
+    void eventIsForgottenOnceEveryBucketHasRotated() {
+        CarEventDeduplicator deduplicator = deduplicator(100);
+        deduplicator.record(event("a"));
+
+        clock.addAndGet(WINDOW.toNanos());
+
+        assertThat(deduplicator.isDuplicate(event("a"))).isFalse();
+    }
+
+    @Test
+    void bucketsRotateOneAtATime() {
+        CarEventDeduplicator deduplicator = deduplicator(100);
+        long bucketNanos = WINDOW.toNanos() / 4;
+        deduplicator.record(event("a"));
+        clock.addAndGet(bucketNanos);
+        deduplicator.record(event("b"));
+
+        clock.addAndGet(bucketNanos * 3);
+
+        assertThat(deduplicator.isDuplicate(event("a"))).isFalse();
+        assertThat(deduplicator.isDuplicate(event("b"))).isTrue();
+    }
+
+    @Test
+    void bloomFalsePositivesStayNearTheConfiguredRate() {
+        CarEventDeduplicator deduplicator = new CarEventDeduplicator(meterRegistry, true, 100, WINDOW, 4,
+                10_000, 0.01, clock::get);
+        // expected-ids spread evenly over the window, as the buckets are sized for
+        for (int i = 0; i < 10_000; i++) {
+            if (i > 0 && i % 2_500 == 0) {
+                clock.addAndGet(WINDOW.toNanos() / 4);
+            }
+            deduplicator.record(event("seen-" + i));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(deduplicator.isDuplicate(event("new-" + i))).isFalse();
+        }
+
+        assertThat(count("car.events.dedupe.bloom.unconfirmed")).isLessThanOrEqualTo(200);
+        assertThat(count("car.events.dedupe.duplicates")).isZero();
+    }
+
+    @Test
+    void burstPastTheBucketSizeNeverSkipsNewEvents() {
+        CarEventDeduplicator deduplicator = new CarEventDeduplicator(meterRegistry, true, 100, WINDOW, 4,
+                10_000, 0.01, clock::get);
+        // four times what one bucket is sized for, all within one bucket period
+        for (int i = 0; i < 10_000; i++) {
+            deduplicator.record(event("seen-" + i));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(deduplicator.isDuplicate(event("new-" + i))).isFalse();
+        }
+
+        assertThat(count("car.events.dedupe.bloom.unconfirmed")).isGreaterThan(1_000);
+        assertThat(count("car.events.dedupe.duplicates")).isZero();
+    }
+
+    @Test
+    void eventWithoutIdIsNeverADuplicate() {
+        CarEventDeduplicator deduplicator = deduplicator(100);
+        deduplicator.record(event(null));
+
+        assertThat(deduplicator.isDuplicate(event(null))).isFalse();
+    }
+
+    @Test
+    void disabledDeduplicatorLetsEverythingThrough() {
+        CarEventDeduplicator deduplicator = new CarEventDeduplicator(meterRegistry, false, 100, WINDOW, 4,
+                1_000, 0.001, clock::get);
+        deduplicator.record(event("a"));
+
+        assertThat(deduplicator.isDuplicate(event("a"))).isFalse();
+    }
+
+    @Test
+    void invalidSettingsAreRejected() {
+        assertThatThrownBy(() -> new CarEventDeduplicator(meterRegistry, true, 0, WINDOW, 4, 1_000, 0.001, clock::get))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CarEventDeduplicator(meterRegistry, true, 100, WINDOW, 1, 1_000, 0.001, clock::get))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CarEventDeduplicator(meterRegistry, true, 100, Duration.ZERO, 4, 1_000, 0.001, clock::get))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CarEventDeduplicator(meterRegistry, true, 100, WINDOW, 4, 1_000, 1.0, clock::get))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private CarEventDeduplicator deduplicator(int recentIds) {
+        return new CarEventDeduplicator(meterRegistry, true, recentIds, WINDOW, 4, 1_000, 0.001, clock::get);
+    }
+
+    private double count(String counter) {
+        return meterRegistry.counter(counter).count();
+    }
+
+    private static CarEventMessage event(String eventId) {
+        CarEventMessage event = new CarEventMessage();
+        event.setEventId(eventId);
+        return event;
+    }
+}
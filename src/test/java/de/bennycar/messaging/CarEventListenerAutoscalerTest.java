@@ -0,0 +1,66 @@
+package de.bennycar.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CarEventListenerAutoscalerTest {
+
+    private final RabbitListenerEndpointRegistry listenerRegistry = mock(RabbitListenerEndpointRegistry.class);
+    private final SimpleMessageListenerContainer container = mock(SimpleMessageListenerContainer.class);
+    private CarEventListenerAutoscaler autoscaler;
+
+    @AfterEach
+    void stopAutoscaler() {
+        if (autoscaler != null) {
+            autoscaler.stop();
+        }
+    }
+
+    @Test
+    void batchListenerPrefetchBelowTheBatchSizeIsRejected() {
+        when(container.isConsumerBatchEnabled()).thenReturn(true);
+        when(listenerRegistry.getListenerContainer("batch")).thenReturn(container);
+        autoscaler = autoscaler("batch:1-3:20-100");
+
+        assertThatThrownBy(autoscaler::start).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("batch-size 50");
+    }
+
+    @Test
+    void containersGetTheConfiguredShutdownTimeout() {
+        when(container.isConsumerBatchEnabled()).thenReturn(true);
+        when(listenerRegistry.getListenerContainer("batch")).thenReturn(container);
+        autoscaler = autoscaler("batch:1-3:50-100");
+
+        autoscaler.start();
+
+        verify(container).setShutdownTimeout(30_000L);
+        verify(container).setPrefetchCount(50);
+    }
+
+    @Test
+    void nonPositiveShutdownTimeoutIsRejected() {
+        assertThatThrownBy(() -> new CarEventListenerAutoscaler(listenerRegistry, mock(AmqpAdmin.class),
+                new SimpleMeterRegistry(), true, Duration.ofSeconds(10), List.of("batch:1-3:50-100"), 3, 0.75, 0.25,
+                Duration.ofSeconds(1), Duration.ZERO, 50))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private CarEventListenerAutoscaler autoscaler(String listener) {
+        return new CarEventListenerAutoscaler(listenerRegistry, mock(AmqpAdmin.class), new SimpleMeterRegistry(),
+                true, Duration.ofSeconds(10), List.of(listener), 3, 0.75, 0.25, Duration.ofSeconds(1),
+                Duration.ofSeconds(30), 50);
+    }
+}
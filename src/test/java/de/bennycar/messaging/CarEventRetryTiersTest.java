@@ -0,0 +1,87 @@
+package de.bennycar.messaging;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CarEventRetryTiersTest {
+
+    private static final Duration FIRST = Duration.ofSeconds(1);
+    private static final Duration SECOND = Duration.ofSeconds(10);
+    private static final Duration THIRD = Duration.ofMinutes(1);
+
+    private final CarEventRetryTiers tiers = new CarEventRetryTiers(List.of(FIRST, SECOND, THIRD));
+
+    @Test
+    void messageWithoutXDeathHasNoAttempts() {
+        assertThat(tiers.attemptsMade(message(null))).isZero();
+    }
+
+    @Test
+    void countsOfExpiredTierDeathsAreAdded() {
+        Message message = message(List.of(
+                death(CarEventRetryTiers.queueName(SECOND), "expired", 1L),
+                death(CarEventRetryTiers.queueName(FIRST), "expired", 2L)));
+
+        assertThat(tiers.attemptsMade(message)).isEqualTo(3);
+    }
+
+    @Test
+    void deepestTierWinsWhenCountsAreMissing() {
+        Message message = message(List.of(death(CarEventRetryTiers.queueName(THIRD), "expired", null)));
+
+        assertThat(tiers.attemptsMade(message)).isEqualTo(3);
+    }
+
+    @Test
+    void deathsOutsideTheRetryTiersAreIgnored() {
+        Message message = message(List.of(
+                death("car.events.queue", "rejected", 4L),
+                death(CarEventRetryTiers.queueName(FIRST), "rejected", 5L),
+                death(CarEventRetryTiers.queueName(Duration.ofSeconds(5)), "expired", 6L)));
+
+        assertThat(tiers.attemptsMade(message)).isZero();
+    }
+
+    @Test
+    void tierNamesCarryTheDelay() {
+        assertThat(CarEventRetryTiers.queueName(SECOND)).isEqualTo("car.retry.10000ms.queue");
+        assertThat(CarEventRetryTiers.exchangeName(SECOND)).isEqualTo("car.retry.10000ms.exchange");
+    }
+
+    @Test
+    void emptyOrNonPositiveDelaysAreRejected() {
+        assertThatThrownBy(() -> new CarEventRetryTiers(List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CarEventRetryTiers(List.of(FIRST, Duration.ZERO)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CarEventRetryTiers(List.of(Duration.ofSeconds(-1))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Message message(List<Map<String, ?>> xDeath) {
+        MessageProperties properties = new MessageProperties();
+        if (xDeath != null) {
+            properties.setHeader("x-death", xDeath);
+        }
+        return new Message(new byte[0], properties);
+    }
+
+    private static Map<String, ?> death(String queue, String reason, Long count) {
+        Map<String, Object> death = new HashMap<>();
+        death.put("queue", queue);
+        death.put("reason", reason);
+        if (count != null) {
+            death.put("count", count);
+        }
+        return death;
+    }
+}
@@ -0,0 +1,84 @@
+package de.bennycar.messaging;
+
+import de.bennycar.config.RabbitMQConfig;
+import de.bennycar.dto.CarEventMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CarEventSpoolTest {
+
+    private static final String UNBOUND_KEY = "car.nowhere";
+
+    @TempDir
+    Path directory;
+
+    private final PublisherConfirmTracker confirmTracker = mock(PublisherConfirmTracker.class);
+    private CarEventSpool spool;
+
+    @AfterEach
+    void stopSpool() {
+        if (spool != null) {
+            spool.stop();
+        }
+    }
+
+    @Test
+    void unroutableRecordIsDroppedAndTheRecordsBehindItAreReplayed() throws Exception {
+        when(confirmTracker.send(any(), eq(UNBOUND_KEY), any())).thenReturn(CompletableFuture.failedFuture(
+                new PublisherConfirmTracker.UnroutableException("returned: NO_ROUTE")));
+        when(confirmTracker.send(any(), eq("car.created"), any())).thenReturn(CompletableFuture.completedFuture(null));
+        startSpool();
+
+        assertThat(spool.append(RabbitMQConfig.CAR_TOPIC_EXCHANGE, UNBOUND_KEY, event())).isTrue();
+        assertThat(spool.append(RabbitMQConfig.CAR_TOPIC_EXCHANGE, "car.created", event())).isTrue();
+
+        verify(confirmTracker, timeout(5_000)).send(eq(RabbitMQConfig.CAR_TOPIC_EXCHANGE), eq("car.created"), any());
+        awaitNoPending();
+        assertThat(spool.hasPending()).isFalse();
+    }
+
+    @Test
+    void nackedRecordStaysPending() throws Exception {
+        when(confirmTracker.send(any(), any(), any()))
+                .thenAnswer(call -> CompletableFuture.failedFuture(new AmqpException("nack: broker overloaded")));
+        startSpool();
+
+        assertThat(spool.append(RabbitMQConfig.CAR_TOPIC_EXCHANGE, "car.created", event())).isTrue();
+
+        // Tried again on every retry interval, never given up
+        verify(confirmTracker, timeout(5_000).atLeast(2)).send(any(), eq("car.created"), any());
+        assertThat(spool.hasPending()).isTrue();
+    }
+
+    private void startSpool() {
+        spool = new CarEventSpool(confirmTracker, mock(ConnectionFactory.class), true, directory, 65_536,
+                "never", Duration.ofMillis(100), 1_000, Duration.ofMillis(50));
+        spool.start();
+    }
+
+    private void awaitNoPending() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (spool.hasPending() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static CarEventMessage event() {
+        return new CarEventMessage("CREATED", 1L, "WVWZZZ1JZXW000001", "Volkswagen", "Golf", 20_000.0, true, "test");
+    }
+}